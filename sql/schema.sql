@@ -8,10 +8,13 @@
     system_prompt CLOB,
     temperature NUMBER(3,2),
     max_tokens NUMBER(10),
+    document_mode VARCHAR2(20) DEFAULT 'SINGLE' NOT NULL,
+    response_cache_ttl_seconds NUMBER(10),
     priority NUMBER(5) DEFAULT 100 NOT NULL,
     enabled NUMBER(1) DEFAULT 1 NOT NULL,
     created_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
-    updated_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+    updated_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT chk_llm_route_document_mode CHECK (document_mode IN ('SINGLE', 'MAP_REDUCE'))
 );
 
 CREATE INDEX idx_llm_route_lookup
@@ -34,26 +37,37 @@ CREATE TABLE llm_training_queue (
     profile_id VARCHAR2(120),
     source_type VARCHAR2(40),
     content CLOB NOT NULL,
+    content_hash VARCHAR2(64),
     status VARCHAR2(20) DEFAULT 'PENDING' NOT NULL,
+    attempts NUMBER(5) DEFAULT 0 NOT NULL,
+    owner_node VARCHAR2(120),
+    lease_expires_at TIMESTAMP,
     next_run_at TIMESTAMP,
     last_error VARCHAR2(2000),
     created_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
     updated_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
-    CONSTRAINT chk_llm_training_status CHECK (status IN ('PENDING', 'DONE', 'FAILED'))
+    CONSTRAINT chk_llm_training_status CHECK (status IN ('PENDING', 'PROCESSING', 'DONE', 'FAILED', 'DEAD'))
 );
 
 CREATE INDEX idx_llm_training_status
     ON llm_training_queue (status, next_run_at, created_at);
 
+CREATE INDEX idx_llm_training_lease
+    ON llm_training_queue (status, lease_expires_at);
+
 CREATE INDEX idx_llm_training_route_key
     ON llm_training_queue (route_key);
 
+CREATE UNIQUE INDEX uq_llm_training_active_hash
+    ON llm_training_queue (CASE WHEN status IN ('PENDING', 'PROCESSING', 'DONE') THEN content_hash END);
+
 CREATE TABLE llm_module_context (
     context_id NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     route_id NUMBER NOT NULL,
     module_key VARCHAR2(120) NOT NULL,
     source_type VARCHAR2(40),
     context_text CLOB NOT NULL,
+    content_hash VARCHAR2(64),
     updated_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
     CONSTRAINT fk_llm_module_ctx_route FOREIGN KEY (route_id) REFERENCES llm_route_config(route_id)
 );
@@ -61,18 +75,49 @@ CREATE TABLE llm_module_context (
 CREATE INDEX idx_llm_module_ctx_lookup
     ON llm_module_context (route_id, module_key, updated_at);
 
+CREATE UNIQUE INDEX uq_llm_module_ctx_hash
+    ON llm_module_context (
+        CASE WHEN content_hash IS NOT NULL THEN route_id END,
+        CASE WHEN content_hash IS NOT NULL THEN module_key END,
+        content_hash
+    );
+
 CREATE TABLE llm_profile_context (
     context_id NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     profile_id VARCHAR2(120) NOT NULL,
     module_key VARCHAR2(120) NOT NULL,
     source_type VARCHAR2(40),
     context_text CLOB NOT NULL,
+    content_hash VARCHAR2(64),
     updated_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
 );
 
 CREATE INDEX idx_llm_profile_ctx_lookup
     ON llm_profile_context (profile_id, module_key, updated_at);
 
+CREATE UNIQUE INDEX uq_llm_profile_ctx_hash
+    ON llm_profile_context (
+        CASE WHEN content_hash IS NOT NULL THEN profile_id END,
+        CASE WHEN content_hash IS NOT NULL THEN module_key END,
+        content_hash
+    );
+
+CREATE TABLE llm_context_archive (
+    archive_id NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    scope VARCHAR2(10) NOT NULL,
+    owner_id VARCHAR2(120) NOT NULL,
+    module_key VARCHAR2(120) NOT NULL,
+    source_type VARCHAR2(40),
+    context_text CLOB NOT NULL,
+    content_hash VARCHAR2(64),
+    original_updated_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT chk_llm_context_archive_scope CHECK (scope IN ('MODULE', 'PROFILE'))
+);
+
+CREATE INDEX idx_llm_context_archive_owner
+    ON llm_context_archive (scope, owner_id, module_key, archived_at);
+
 CREATE TABLE llm_request_log (
     id NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     route_key VARCHAR2(120) NOT NULL,
@@ -83,12 +128,25 @@ CREATE TABLE llm_request_log (
     created_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
 );
 
+CREATE TABLE llm_response_cache (
+    cache_key VARCHAR2(64) PRIMARY KEY,
+    route_key VARCHAR2(120) NOT NULL,
+    provider VARCHAR2(40) NOT NULL,
+    model_name VARCHAR2(120) NOT NULL,
+    response_text CLOB NOT NULL,
+    created_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_llm_response_cache_expiry
+    ON llm_response_cache (expires_at);
+
 INSERT INTO llm_route_config
     (route_key, data_type, data_characteristic, provider, model_name, system_prompt, temperature, max_tokens, priority, enabled)
 VALUES
     ('SUPPORT_DEFAULT', 'SUPPORT', '*', 'OPENAI', 'gpt-5', 'Voce e um analista de suporte tecnico.', 0.2, 1200, 10, 1);
 
 INSERT INTO llm_route_config
-    (route_key, data_type, data_characteristic, provider, model_name, system_prompt, temperature, max_tokens, priority, enabled)
+    (route_key, data_type, data_characteristic, provider, model_name, system_prompt, temperature, max_tokens, priority, enabled, response_cache_ttl_seconds)
 VALUES
-    ('FINANCE_RISK', 'FINANCE', 'RISK', 'ANTHROPIC', 'claude-sonnet-4-5', 'Voce e um analista de risco financeiro.', 0.1, 1500, 5, 1);
+    ('FINANCE_RISK', 'FINANCE', 'RISK', 'ANTHROPIC', 'claude-sonnet-4-5', 'Voce e um analista de risco financeiro.', 0.1, 1500, 5, 1, 3600);
@@ -0,0 +1,164 @@
+package br.com.ai.connector.adapter.in.queue;
+
+import br.com.ai.connector.application.usecase.TrainingJobUseCase;
+import br.com.ai.connector.dto.TrainingMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+@ApplicationScoped
+public class TrainingIngestBuffer {
+
+    private static final Logger LOG = Logger.getLogger(TrainingIngestBuffer.class);
+
+    @Inject
+    TrainingJobUseCase trainingJobUseCase;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "training.ingest.batch-size")
+    int batchSize;
+
+    @ConfigProperty(name = "training.ingest.flush-interval")
+    Duration flushInterval;
+
+    @ConfigProperty(name = "training.ingest.retry-delay")
+    Duration retryDelay;
+
+    @ConfigProperty(name = "training.ingest.shutdown-timeout")
+    Duration shutdownTimeout;
+
+    private final ConcurrentLinkedQueue<Message<String>> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private ObjectReader messageReader;
+    private volatile boolean running;
+    private Thread flusher;
+
+    private Counter enqueued;
+    private Counter rejected;
+    private Counter flushFailures;
+    private Timer flushTimer;
+
+    @PostConstruct
+    void init() {
+        messageReader = objectMapper.readerFor(TrainingMessage.class);
+        enqueued = meterRegistry.counter("connector.training.ingest.messages", "outcome", "enqueued");
+        rejected = meterRegistry.counter("connector.training.ingest.messages", "outcome", "rejected");
+        flushFailures = meterRegistry.counter("connector.training.ingest.flush.failures");
+        flushTimer = Timer.builder("connector.training.ingest.flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("connector.training.ingest.backlog", depth, AtomicInteger::get).register(meterRegistry);
+
+        running = true;
+        flusher = Thread.ofPlatform()
+                .name("training-ingest-flusher")
+                .daemon()
+                .start(this::runFlusher);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (depth.get() > 0) {
+            LOG.warnf("Encerrando com %d mensagens de treinamento sem confirmacao; o broker fara a reentrega", depth.get());
+        }
+    }
+
+    public void submit(Message<String> message) {
+        buffer.offer(message);
+        if (depth.incrementAndGet() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private void runFlusher() {
+        long intervalNanos = flushInterval.toNanos();
+        while (running || depth.get() > 0) {
+            if (running && depth.get() < batchSize) {
+                LockSupport.parkNanos(intervalNanos);
+            }
+            List<Message<String>> batch = drain();
+            if (!batch.isEmpty() && !flush(batch)) {
+                return;
+            }
+        }
+    }
+
+    private List<Message<String>> drain() {
+        List<Message<String>> batch = new ArrayList<>(Math.min(batchSize, Math.max(depth.get(), 1)));
+        Message<String> message;
+        while (batch.size() < batchSize && (message = buffer.poll()) != null) {
+            depth.decrementAndGet();
+            batch.add(message);
+        }
+        return batch;
+    }
+
+    private boolean flush(List<Message<String>> batch) {
+        List<Message<String>> accepted = new ArrayList<>(batch.size());
+        List<TrainingMessage> parsed = new ArrayList<>(batch.size());
+        for (Message<String> message : batch) {
+            try {
+                TrainingMessage training = messageReader.readValue(message.getPayload());
+                TrainingJobUseCase.validate(training);
+                accepted.add(message);
+                parsed.add(training);
+            } catch (Exception e) {
+                rejected.increment();
+                LOG.errorf("Mensagem de treinamento invalida enviada para a DLQ: %s (%s)", message.getPayload(), e.getMessage());
+                message.nack(e);
+            }
+        }
+        if (parsed.isEmpty()) {
+            return true;
+        }
+        while (true) {
+            long start = System.nanoTime();
+            try {
+                trainingJobUseCase.enqueueAll(parsed);
+                enqueued.increment(parsed.size());
+                accepted.forEach(Message::ack);
+                return true;
+            } catch (RuntimeException e) {
+                flushFailures.increment();
+                if (!running) {
+                    LOG.errorf(e, "Falha ao gravar lote de %d mensagens de treinamento durante o encerramento; o broker fara a reentrega",
+                            parsed.size());
+                    return false;
+                }
+                LOG.warnf(e, "Falha ao gravar lote de %d mensagens de treinamento; nova tentativa em %s", parsed.size(), retryDelay);
+                LockSupport.parkNanos(retryDelay.toNanos());
+            } finally {
+                flushTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            }
+        }
+    }
+}
@@ -3,11 +3,14 @@ package br.com.ai.connector.adapter.in.rest;
 import br.com.ai.connector.application.port.out.LlmProviderCatalogPort;
 import br.com.ai.connector.application.usecase.InferenceUseCase;
 import br.com.ai.connector.application.usecase.TrainingJobUseCase;
+import br.com.ai.connector.dto.FileAttachment;
 import br.com.ai.connector.dto.InferenceRequest;
 import br.com.ai.connector.dto.InferenceResponse;
 import br.com.ai.connector.dto.ProviderInfo;
 import br.com.ai.connector.dto.TrainingMessage;
+import io.quarkus.runtime.configuration.MemorySize;
 import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
@@ -18,11 +21,9 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.BeanParam;
 import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.resteasy.reactive.RestStreamElementType;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 
@@ -39,10 +40,13 @@ public class ConnectorResource {
     @Inject
     LlmProviderCatalogPort providerCatalogPort;
 
+    @ConfigProperty(name = "file.upload.max-size")
+    MemorySize maxFileSize;
+
     @POST
     @Path("/query")
     @Consumes(MediaType.APPLICATION_JSON)
-    public InferenceResponse postQuery(
+    public Uni<InferenceResponse> postQuery(
             @HeaderParam("X-Data-Type") String dataType,
             @HeaderParam("X-Data-Characteristic") String characteristic,
             @HeaderParam("X-Module-Key") String moduleKey,
@@ -50,7 +54,7 @@ public class ConnectorResource {
             InferenceRequest request
     ) {
         requireRequest(request);
-        return inferenceUseCase.ask(
+        return inferenceUseCase.askAsync(
                 require(dataType, "X-Data-Type"),
                 require(characteristic, "X-Data-Characteristic"),
                 moduleKey,
@@ -62,7 +66,7 @@ public class ConnectorResource {
     @PUT
     @Path("/query")
     @Consumes(MediaType.APPLICATION_JSON)
-    public InferenceResponse putQuery(
+    public Uni<InferenceResponse> putQuery(
             @HeaderParam("X-Data-Type") String dataType,
             @HeaderParam("X-Data-Characteristic") String characteristic,
             @HeaderParam("X-Module-Key") String moduleKey,
@@ -70,7 +74,7 @@ public class ConnectorResource {
             InferenceRequest request
     ) {
         requireRequest(request);
-        return inferenceUseCase.ask(
+        return inferenceUseCase.askAsync(
                 require(dataType, "X-Data-Type"),
                 require(characteristic, "X-Data-Characteristic"),
                 moduleKey,
@@ -104,31 +108,30 @@ public class ConnectorResource {
     @POST
     @Path("/file")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
-    public InferenceResponse sendFile(
+    public Uni<InferenceResponse> sendFile(
             @HeaderParam("X-Data-Type") String dataType,
             @HeaderParam("X-Data-Characteristic") String characteristic,
             @HeaderParam("X-Module-Key") String moduleKey,
             @HeaderParam("X-Profile-Id") String profileId,
             @BeanParam FileRequestForm form
-    ) throws IOException {
+    ) {
         if (form == null || form.file == null) {
             throw new IllegalArgumentException("Multipart invalido: arquivo nao informado.");
         }
-        byte[] bytes = Files.readAllBytes(form.file.toPath());
-        String encoded = Base64.getEncoder().encodeToString(bytes);
-        String joinedPrompt = """
-                Analise o arquivo enviado (base64) junto com o prompt.
-                Prompt: %s
-                FileBase64: %s
-                """.formatted(form.prompt, encoded);
-
-        InferenceRequest request = new InferenceRequest(joinedPrompt, null, Map.of("source", "multipart-file"));
-        return inferenceUseCase.ask(
+        long size = form.file.length();
+        if (size > maxFileSize.asLongValue()) {
+            throw new IllegalArgumentException(
+                    "Arquivo com " + size + " bytes excede o limite de " + maxFileSize.asLongValue() + " bytes.");
+        }
+        String prompt = form.prompt == null ? "" : form.prompt;
+        InferenceRequest request = new InferenceRequest(prompt, null, Map.of("source", "multipart-file"));
+        return inferenceUseCase.askAsync(
                 require(dataType, "X-Data-Type"),
                 require(characteristic, "X-Data-Characteristic"),
                 moduleKey,
                 profileId,
-                request
+                request,
+                new FileAttachment(form.file.toPath(), size)
         );
     }
 
@@ -140,6 +143,15 @@ public class ConnectorResource {
         return Map.of("status", "queued");
     }
 
+    @POST
+    @Path("/training/enqueue/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Map<String, Object> enqueueTrainingBatch(List<TrainingMessage> messages) {
+        int received = messages == null ? 0 : messages.size();
+        int queued = trainingJobUseCase.enqueueAll(messages);
+        return Map.of("status", "queued", "count", queued, "duplicates", received - queued);
+    }
+
     @GET
     @Path("/providers")
     public Map<String, Object> providers() {
@@ -0,0 +1,24 @@
+package br.com.ai.connector.adapter.in.scheduler;
+
+import br.com.ai.connector.application.usecase.KnowledgeCompactionUseCase;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class KnowledgeCompactionScheduler {
+
+    @ConfigProperty(name = "knowledge.compaction.enabled")
+    boolean enabled;
+
+    @Inject
+    KnowledgeCompactionUseCase compactionUseCase;
+
+    @Scheduled(every = "{knowledge.compaction.every}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void compactKnowledge() {
+        if (enabled) {
+            compactionUseCase.runCompaction();
+        }
+    }
+}
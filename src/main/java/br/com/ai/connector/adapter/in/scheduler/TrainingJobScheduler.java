@@ -12,16 +12,20 @@ public class TrainingJobScheduler {
     @ConfigProperty(name = "job.training.enabled")
     boolean enabled;
 
-    @ConfigProperty(name = "job.training.batch-size")
-    int batchSize;
-
     @Inject
     TrainingJobUseCase trainingJobUseCase;
 
-    @Scheduled(every = "{job.training.every}")
+    @Scheduled(every = "{job.training.every}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
     void runTrainingBatch() {
         if (enabled) {
-            trainingJobUseCase.runBatch(batchSize);
+            trainingJobUseCase.sweep();
+        }
+    }
+
+    @Scheduled(every = "{job.training.reaper-every}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void releaseExpiredLeases() {
+        if (enabled) {
+            trainingJobUseCase.releaseExpiredLeases();
         }
     }
 }
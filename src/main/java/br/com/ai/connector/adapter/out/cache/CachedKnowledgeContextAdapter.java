@@ -0,0 +1,139 @@
+package br.com.ai.connector.adapter.out.cache;
+
+import br.com.ai.connector.adapter.out.cache.ContextSnippetCache.Section;
+import br.com.ai.connector.adapter.out.oracle.OracleLlmConfigAdapter;
+import br.com.ai.connector.application.port.out.KnowledgeCompactionPort;
+import br.com.ai.connector.application.port.out.KnowledgeContextPort;
+import br.com.ai.connector.dto.ContextBundle;
+import br.com.ai.connector.dto.ContextCompactionTarget;
+import br.com.ai.connector.dto.ContextSnippet;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+@Alternative
+@Priority(1)
+@ApplicationScoped
+public class CachedKnowledgeContextAdapter implements KnowledgeContextPort, KnowledgeCompactionPort {
+
+    @Inject
+    OracleLlmConfigAdapter oracleAdapter;
+
+    @Inject
+    ContextSnippetCache snippetCache;
+
+    @Override
+    public ContextBundle loadContextBundle(
+            long routeId,
+            String moduleKey,
+            String profileId,
+            int routeLimit,
+            int moduleLimit,
+            int profileLimit
+    ) {
+        String routeOwner = String.valueOf(routeId);
+        String profileModule = effectiveModule(moduleKey);
+        long routeGeneration = snippetCache.generation(Section.ROUTE, routeOwner, null);
+        long moduleGeneration = snippetCache.generation(Section.MODULE, routeOwner, moduleKey);
+        long profileGeneration = snippetCache.generation(Section.PROFILE, profileId, profileModule);
+        List<String> routeSnippets = snippetCache.peek(Section.ROUTE, routeOwner, null, routeLimit);
+        List<String> moduleSnippets = isBlank(moduleKey)
+                ? List.of()
+                : snippetCache.peek(Section.MODULE, routeOwner, moduleKey, moduleLimit);
+        List<String> profileSnippets = isBlank(profileId)
+                ? List.of()
+                : snippetCache.peek(Section.PROFILE, profileId, profileModule, profileLimit);
+        if (routeSnippets != null && moduleSnippets != null && profileSnippets != null) {
+            return new ContextBundle(routeSnippets, moduleSnippets, profileSnippets);
+        }
+
+        ContextBundle loaded = oracleAdapter.loadContextBundle(
+                routeId,
+                moduleKey,
+                profileId,
+                routeSnippets == null ? routeLimit : 0,
+                moduleSnippets == null ? moduleLimit : 0,
+                profileSnippets == null ? profileLimit : 0
+        );
+        if (routeSnippets == null) {
+            routeSnippets = loaded.routeSnippets();
+            snippetCache.put(Section.ROUTE, routeOwner, null, routeLimit, routeSnippets, routeGeneration);
+        }
+        if (moduleSnippets == null) {
+            moduleSnippets = loaded.moduleSnippets();
+            snippetCache.put(Section.MODULE, routeOwner, moduleKey, moduleLimit, moduleSnippets, moduleGeneration);
+        }
+        if (profileSnippets == null) {
+            profileSnippets = loaded.profileSnippets();
+            snippetCache.put(Section.PROFILE, profileId, profileModule, profileLimit, profileSnippets, profileGeneration);
+        }
+        return new ContextBundle(routeSnippets, moduleSnippets, profileSnippets);
+    }
+
+    @Override
+    public List<String> loadModuleContext(long routeId, String moduleKey, int limit) {
+        if (isBlank(moduleKey)) {
+            return List.of();
+        }
+        return snippetCache.get(Section.MODULE, String.valueOf(routeId), moduleKey, limit,
+                effectiveLimit -> oracleAdapter.loadModuleContext(routeId, moduleKey, effectiveLimit));
+    }
+
+    @Override
+    public List<String> loadProfileContext(String profileId, String moduleKey, int limit) {
+        if (isBlank(profileId)) {
+            return List.of();
+        }
+        String effectiveModule = effectiveModule(moduleKey);
+        return snippetCache.get(Section.PROFILE, profileId, effectiveModule, limit,
+                effectiveLimit -> oracleAdapter.loadProfileContext(profileId, effectiveModule, effectiveLimit));
+    }
+
+    @Override
+    public boolean saveModuleContext(long routeId, String moduleKey, String contextText, String contentHash, String sourceType) {
+        boolean stored = oracleAdapter.saveModuleContext(routeId, moduleKey, contextText, contentHash, sourceType);
+        if (stored) {
+            snippetCache.invalidate(Section.MODULE, String.valueOf(routeId), moduleKey);
+        }
+        return stored;
+    }
+
+    @Override
+    public boolean saveProfileContext(String profileId, String moduleKey, String contextText, String contentHash, String sourceType) {
+        boolean stored = oracleAdapter.saveProfileContext(profileId, moduleKey, contextText, contentHash, sourceType);
+        if (stored) {
+            snippetCache.invalidate(Section.PROFILE, profileId, effectiveModule(moduleKey));
+        }
+        return stored;
+    }
+
+    @Override
+    public List<ContextCompactionTarget> findCompactionTargets(String scope, int keepLatest, int minCompactableRows, int limit) {
+        return oracleAdapter.findCompactionTargets(scope, keepLatest, minCompactableRows, limit);
+    }
+
+    @Override
+    public List<ContextSnippet> loadCompactableContext(ContextCompactionTarget target, int keepLatest, int maxRows) {
+        return oracleAdapter.loadCompactableContext(target, keepLatest, maxRows);
+    }
+
+    @Override
+    public boolean replaceWithSummary(ContextCompactionTarget target, String summary, List<Long> supersededIds) {
+        boolean replaced = oracleAdapter.replaceWithSummary(target, summary, supersededIds);
+        if (replaced) {
+            snippetCache.invalidate(target.moduleScope() ? Section.MODULE : Section.PROFILE, target.ownerId(), target.moduleKey());
+        }
+        return replaced;
+    }
+
+    private String effectiveModule(String moduleKey) {
+        return isBlank(moduleKey) ? "GENERAL" : moduleKey;
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
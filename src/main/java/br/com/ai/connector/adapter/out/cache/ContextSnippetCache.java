@@ -0,0 +1,149 @@
+package br.com.ai.connector.adapter.out.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
+
+@ApplicationScoped
+public class ContextSnippetCache {
+
+    public enum Section {
+        ROUTE,
+        MODULE,
+        PROFILE
+    }
+
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final int SNIPPET_OVERHEAD_BYTES = 40;
+    private static final int GENERATION_STRIPES = 1024;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "context.cache.enabled")
+    boolean enabled;
+
+    @ConfigProperty(name = "context.cache.max-size")
+    MemorySize maxSize;
+
+    @ConfigProperty(name = "context.cache.route-ttl")
+    Duration routeTtl;
+
+    @ConfigProperty(name = "context.cache.module-ttl")
+    Duration moduleTtl;
+
+    @ConfigProperty(name = "context.cache.profile-ttl")
+    Duration profileTtl;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private Cache<Key, Entry> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.asLongValue())
+                .weigher((Key key, Entry entry) -> entry.weightInBytes())
+                .expireAfter(Expiry.writing((Key key, Entry entry) -> ttl(key.section())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "connector.context.snippets");
+        Gauge.builder("connector.context.snippets.weight.bytes", this, ContextSnippetCache::weightedBytes)
+                .register(meterRegistry);
+    }
+
+    public List<String> get(Section section, String owner, String moduleKey, int limit, IntFunction<List<String>> loader) {
+        if (!enabled) {
+            return loader.apply(limit);
+        }
+        long generation = generation(section, owner, moduleKey);
+        List<String> cached = peek(section, owner, moduleKey, limit);
+        if (cached != null) {
+            return cached;
+        }
+        List<String> loaded = List.copyOf(loader.apply(limit));
+        put(section, owner, moduleKey, limit, loaded, generation);
+        return loaded;
+    }
+
+    public long generation(Section section, String owner, String moduleKey) {
+        return generations.get(stripe(new Key(section, owner, moduleKey)));
+    }
+
+    public List<String> peek(Section section, String owner, String moduleKey, int limit) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(new Key(section, owner, moduleKey));
+        if (entry == null || !entry.covers(limit)) {
+            return null;
+        }
+        return entry.snippets().size() > limit ? entry.snippets().subList(0, limit) : entry.snippets();
+    }
+
+    public void put(Section section, String owner, String moduleKey, int limit, List<String> snippets, long generation) {
+        if (!enabled) {
+            return;
+        }
+        Key key = new Key(section, owner, moduleKey);
+        Entry entry = new Entry(List.copyOf(snippets), limit);
+        cache.asMap().compute(key, (k, current) -> generations.get(stripe(k)) == generation ? entry : current);
+    }
+
+    public void invalidate(Section section, String owner, String moduleKey) {
+        Key key = new Key(section, owner, moduleKey);
+        cache.asMap().compute(key, (k, current) -> {
+            generations.incrementAndGet(stripe(k));
+            return null;
+        });
+    }
+
+    long weightedBytes() {
+        cache.cleanUp();
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    private static int stripe(Key key) {
+        return Math.floorMod(key.hashCode() * 0x9E37_79B9, GENERATION_STRIPES);
+    }
+
+    private Duration ttl(Section section) {
+        return switch (section) {
+            case ROUTE -> routeTtl;
+            case MODULE -> moduleTtl;
+            case PROFILE -> profileTtl;
+        };
+    }
+
+    private record Key(Section section, String owner, String moduleKey) {
+    }
+
+    private record Entry(List<String> snippets, int fetchedLimit) {
+
+        boolean covers(int limit) {
+            return limit <= fetchedLimit || snippets.size() < fetchedLimit;
+        }
+
+        int weightInBytes() {
+            long bytes = ENTRY_OVERHEAD_BYTES;
+            for (String snippet : snippets) {
+                bytes += SNIPPET_OVERHEAD_BYTES + (snippet == null ? 0 : 2L * snippet.length());
+            }
+            return (int) Math.min(Integer.MAX_VALUE, bytes);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package br.com.ai.connector.adapter.out.cache;
+
+import br.com.ai.connector.adapter.out.oracle.OracleLlmConfigAdapter;
+import br.com.ai.connector.application.port.out.ResponseCachePort;
+import br.com.ai.connector.dto.CachedResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@ApplicationScoped
+public class ResponseCacheAdapter implements ResponseCachePort {
+
+    private static final Logger LOG = Logger.getLogger(ResponseCacheAdapter.class);
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+    private static final ExecutorService PERSIST_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Inject
+    OracleLlmConfigAdapter oracleAdapter;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "response-cache.max-size")
+    MemorySize maxSize;
+
+    @ConfigProperty(name = "response-cache.persistent.enabled")
+    boolean persistentEnabled;
+
+    private Cache<String, CachedResponse> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.asLongValue())
+                .weigher((String key, CachedResponse value) -> weightInBytes(value))
+                .expireAfter(Expiry.writing((String key, CachedResponse value) -> remaining(value)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "connector.response.cache.memory");
+    }
+
+    @Override
+    public Optional<String> find(String cacheKey, String routeKey) {
+        CachedResponse hit = cache.getIfPresent(cacheKey);
+        String tier = "memory";
+        if (hit == null && persistentEnabled) {
+            tier = "oracle";
+            hit = loadPersistent(cacheKey);
+            if (hit != null) {
+                cache.put(cacheKey, hit);
+            }
+        }
+        if (hit == null) {
+            meterRegistry.counter("connector.response.cache.requests", "route", routeKey, "result", "miss", "tier", "none").increment();
+            return Optional.empty();
+        }
+        meterRegistry.counter("connector.response.cache.requests", "route", routeKey, "result", "hit", "tier", tier).increment();
+        return Optional.of(hit.output());
+    }
+
+    @Override
+    public void store(String cacheKey, String routeKey, String provider, String model, String output, Duration ttl) {
+        CachedResponse response = new CachedResponse(output, Instant.now().plus(ttl));
+        cache.put(cacheKey, response);
+        if (!persistentEnabled) {
+            return;
+        }
+        PERSIST_EXECUTOR.execute(() -> {
+            try {
+                oracleAdapter.saveCachedResponse(cacheKey, routeKey, provider, model, response);
+            } catch (RuntimeException e) {
+                LOG.warnf(e, "Falha ao persistir resposta em cache da rota %s", routeKey);
+            }
+        });
+    }
+
+    @Scheduled(every = "{response-cache.persistent.purge-every}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void purgeExpired() {
+        if (!persistentEnabled) {
+            return;
+        }
+        try {
+            int purged = oracleAdapter.purgeExpiredResponses();
+            LOG.debugf("Respostas expiradas removidas do cache persistente: %d", purged);
+        } catch (RuntimeException e) {
+            LOG.warn("Falha ao remover respostas expiradas do cache persistente", e);
+        }
+    }
+
+    private CachedResponse loadPersistent(String cacheKey) {
+        try {
+            return oracleAdapter.findCachedResponse(cacheKey).orElse(null);
+        } catch (RuntimeException e) {
+            LOG.warn("Falha ao consultar cache persistente de respostas; seguindo sem cache", e);
+            return null;
+        }
+    }
+
+    private static Duration remaining(CachedResponse response) {
+        Duration remaining = Duration.between(Instant.now(), response.expiresAt());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private static int weightInBytes(CachedResponse response) {
+        long bytes = ENTRY_OVERHEAD_BYTES + (response.output() == null ? 0 : 2L * response.output().length());
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+}
@@ -0,0 +1,84 @@
+package br.com.ai.connector.adapter.out.embedding;
+
+import br.com.ai.connector.application.port.out.EmbeddingPort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+@ApplicationScoped
+public class HashingEmbeddingAdapter implements EmbeddingPort {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final int dimensions;
+
+    @Inject
+    public HashingEmbeddingAdapter(@ConfigProperty(name = "context.retrieval.embedding.dimensions") int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        String[] tokens = tokenize(text);
+        String previous = null;
+        for (String token : tokens) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            add(vector, token, 1.0f);
+            if (previous != null) {
+                add(vector, previous + ' ' + token, 0.5f);
+            }
+            previous = token;
+        }
+        normalize(vector);
+        return vector;
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.split(folded.toLowerCase(Locale.ROOT));
+    }
+
+    private void add(float[] vector, String feature, float weight) {
+        int hash = mix(feature.hashCode());
+        int bucket = Math.floorMod(hash, dimensions);
+        vector[bucket] += (hash & 0x4000_0000) == 0 ? weight : -weight;
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85eb_ca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2_ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+    }
+}
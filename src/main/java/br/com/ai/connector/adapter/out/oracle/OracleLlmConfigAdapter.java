@@ -3,28 +3,82 @@ package br.com.ai.connector.adapter.out.oracle;
 import br.com.ai.connector.application.port.out.RequestLogPort;
 import br.com.ai.connector.application.port.out.RouteConfigPort;
 import br.com.ai.connector.application.port.out.TrainingQueuePort;
+import br.com.ai.connector.application.port.out.KnowledgeCompactionPort;
 import br.com.ai.connector.application.port.out.KnowledgeContextPort;
+import br.com.ai.connector.dto.CachedResponse;
+import br.com.ai.connector.dto.ContextBundle;
+import br.com.ai.connector.dto.ContextCompactionTarget;
+import br.com.ai.connector.dto.ContextSnippet;
+import br.com.ai.connector.dto.RequestLogEntry;
 import br.com.ai.connector.dto.RouteConfig;
+import br.com.ai.connector.dto.RouteRule;
+import br.com.ai.connector.dto.RouteTableVersion;
+import br.com.ai.connector.dto.TrainingMessage;
+import br.com.ai.connector.dto.TrainingOutcome;
 import br.com.ai.connector.dto.TrainingQueueItem;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 @ApplicationScoped
-public class OracleLlmConfigAdapter implements RouteConfigPort, RequestLogPort, TrainingQueuePort, KnowledgeContextPort {
+public class OracleLlmConfigAdapter
+        implements RouteConfigPort, RequestLogPort, TrainingQueuePort, KnowledgeContextPort, KnowledgeCompactionPort {
+
+    private static final Logger LOG = Logger.getLogger(OracleLlmConfigAdapter.class);
+    private static final int ENQUEUE_BATCH_CHUNK = 1000;
+    private static final int UNIQUE_CONSTRAINT_VIOLATED = 1;
 
     @Inject
     DataSource dataSource;
 
+    @ConfigProperty(name = "job.training.node-id")
+    Optional<String> configuredNodeId;
+
+    @ConfigProperty(name = "job.training.lease")
+    Duration trainingLease;
+
+    @ConfigProperty(name = "job.training.retry.max-attempts")
+    int trainingMaxAttempts;
+
+    @ConfigProperty(name = "knowledge.compaction.archive")
+    boolean archiveCompactedContext;
+
+    private String nodeId;
+
+    @PostConstruct
+    void init() {
+        nodeId = configuredNodeId.filter(id -> !id.isBlank()).orElseGet(OracleLlmConfigAdapter::defaultNodeId);
+        LOG.infof("Fila de treinamento reservada pelo no %s", nodeId);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
     @Override
     public Optional<RouteConfig> resolveRoute(String dataType, String characteristic) {
         final String sql = """
@@ -34,7 +88,9 @@ public class OracleLlmConfigAdapter implements RouteConfigPort, RequestLogPort,
                        model_name,
                        system_prompt,
                        temperature,
-                       max_tokens
+                       max_tokens,
+                       document_mode,
+                       response_cache_ttl_seconds
                 FROM llm_route_config
                 WHERE enabled = 1
                   AND data_type = ?
@@ -56,7 +112,9 @@ public class OracleLlmConfigAdapter implements RouteConfigPort, RequestLogPort,
                             resultSet.getString("model_name"),
                             resultSet.getString("system_prompt"),
                             getNullableDouble(resultSet, "temperature"),
-                            getNullableInteger(resultSet, "max_tokens")
+                            getNullableInteger(resultSet, "max_tokens"),
+                            resultSet.getString("document_mode"),
+                            getNullableInteger(resultSet, "response_cache_ttl_seconds")
                     ));
                 }
                 return Optional.empty();
@@ -66,6 +124,72 @@ public class OracleLlmConfigAdapter implements RouteConfigPort, RequestLogPort,
         }
     }
 
+    public List<RouteRule> loadEnabledRoutes() {
+        final String sql = """
+                SELECT route_id,
+                       route_key,
+                       data_type,
+                       data_characteristic,
+                       provider,
+                       model_name,
+                       system_prompt,
+                       temperature,
+                       max_tokens,
+                       document_mode,
+                       response_cache_ttl_seconds,
+                       priority
+                FROM llm_route_config
+                WHERE enabled = 1
+                """;
+        List<RouteRule> rules = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rules.add(new RouteRule(
+                            resultSet.getString("data_type"),
+                            resultSet.getString("data_characteristic"),
+                            resultSet.getInt("priority"),
+                            new RouteConfig(
+                                    resultSet.getLong("route_id"),
+                                    resultSet.getString("route_key"),
+                                    resultSet.getString("provider"),
+                                    resultSet.getString("model_name"),
+                                    resultSet.getString("system_prompt"),
+                                    getNullableDouble(resultSet, "temperature"),
+                                    getNullableInteger(resultSet, "max_tokens"),
+                                    resultSet.getString("document_mode"),
+                                    getNullableInteger(resultSet, "response_cache_ttl_seconds")
+                            )
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao carregar tabela de rotas no Oracle", e);
+        }
+        return rules;
+    }
+
+    public RouteTableVersion loadRouteTableVersion() {
+        final String sql = """
+                SELECT COUNT(*) AS total_routes,
+                       MAX(updated_at) AS last_updated_at
+                FROM llm_route_config
+                """;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            java.sql.Timestamp lastUpdatedAt = resultSet.getTimestamp("last_updated_at");
+            return new RouteTableVersion(
+                    resultSet.getLong("total_routes"),
+                    lastUpdatedAt == null ? null : lastUpdatedAt.toInstant()
+            );
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao consultar versao da tabela de rotas no Oracle", e);
+        }
+    }
+
     @Override
     public List<String> loadContextSnippets(long routeId, int limit) {
         final String sql = """
@@ -112,78 +236,487 @@ public class OracleLlmConfigAdapter implements RouteConfigPort, RequestLogPort,
         }
     }
 
-    @Override
-    public List<TrainingQueueItem> fetchPendingTrainingItems(int batchSize) {
+    public Optional<CachedResponse> findCachedResponse(String cacheKey) {
+        final String sql = """
+                SELECT response_text, expires_at
+                FROM llm_response_cache
+                WHERE cache_key = ?
+                  AND expires_at > SYSTIMESTAMP
+                """;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, cacheKey);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return Optional.of(new CachedResponse(
+                            resultSet.getString("response_text"),
+                            resultSet.getTimestamp("expires_at").toInstant()
+                    ));
+                }
+                return Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao consultar cache de respostas no Oracle", e);
+        }
+    }
+
+    public void saveCachedResponse(String cacheKey, String routeKey, String provider, String model, CachedResponse response) {
+        final String sql = """
+                MERGE INTO llm_response_cache target
+                USING (SELECT ? AS cache_key FROM dual) source
+                ON (target.cache_key = source.cache_key)
+                WHEN MATCHED THEN UPDATE SET
+                    route_key = ?, provider = ?, model_name = ?, response_text = ?, expires_at = ?, created_at = SYSTIMESTAMP
+                WHEN NOT MATCHED THEN INSERT
+                    (cache_key, route_key, provider, model_name, response_text, expires_at)
+                    VALUES (source.cache_key, ?, ?, ?, ?, ?)
+                """;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            java.sql.Timestamp expiresAt = java.sql.Timestamp.from(response.expiresAt());
+            statement.setString(1, cacheKey);
+            statement.setString(2, routeKey);
+            statement.setString(3, provider);
+            statement.setString(4, model);
+            statement.setString(5, response.output());
+            statement.setTimestamp(6, expiresAt);
+            statement.setString(7, routeKey);
+            statement.setString(8, provider);
+            statement.setString(9, model);
+            statement.setString(10, response.output());
+            statement.setTimestamp(11, expiresAt);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao salvar cache de respostas no Oracle", e);
+        }
+    }
+
+    public int purgeExpiredResponses() {
+        final String sql = "DELETE FROM llm_response_cache WHERE expires_at <= SYSTIMESTAMP";
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao remover respostas expiradas do cache no Oracle", e);
+        }
+    }
+
+    public void saveRequestLogs(List<RequestLogEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
         final String sql = """
-                SELECT id, data_type, data_characteristic, content, route_key, module_key, profile_id, source_type
+                INSERT INTO llm_request_log
+                    (route_key, provider, model_name, request_summary, response_summary, created_at)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (RequestLogEntry entry : entries) {
+                    statement.setString(1, entry.routeKey());
+                    statement.setString(2, entry.provider());
+                    statement.setString(3, entry.model());
+                    statement.setString(4, entry.requestSummary());
+                    statement.setString(5, entry.responseSummary());
+                    statement.setTimestamp(6, java.sql.Timestamp.from(entry.createdAt()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao salvar lote de logs de requisicao no Oracle", e);
+        }
+    }
+
+    @Override
+    public List<TrainingQueueItem> claimPendingTrainingItems(int batchSize) {
+        final String selectSql = """
+                SELECT id, data_type, data_characteristic, content, route_key, module_key, profile_id, source_type, attempts
                 FROM llm_training_queue
                 WHERE status = 'PENDING'
                   AND (next_run_at IS NULL OR next_run_at <= SYSTIMESTAMP)
                 ORDER BY created_at
-                FETCH FIRST ? ROWS ONLY
+                FOR UPDATE SKIP LOCKED
+                """;
+        final String claimSql = """
+                UPDATE llm_training_queue
+                SET status = 'PROCESSING',
+                    attempts = attempts + 1,
+                    owner_node = ?,
+                    lease_expires_at = SYSTIMESTAMP + NUMTODSINTERVAL(?, 'SECOND'),
+                    updated_at = SYSTIMESTAMP
+                WHERE id = ?
                 """;
         List<TrainingQueueItem> items = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement select = connection.prepareStatement(selectSql);
+                 PreparedStatement claim = connection.prepareStatement(claimSql)) {
+                select.setFetchSize(batchSize);
+                select.setMaxRows(batchSize);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (items.size() < batchSize && resultSet.next()) {
+                        items.add(new TrainingQueueItem(
+                                resultSet.getLong("id"),
+                                resultSet.getString("data_type"),
+                                resultSet.getString("data_characteristic"),
+                                resultSet.getString("content"),
+                                resultSet.getString("route_key"),
+                                resultSet.getString("module_key"),
+                                resultSet.getString("profile_id"),
+                                resultSet.getString("source_type"),
+                                resultSet.getInt("attempts") + 1
+                        ));
+                    }
+                }
+                for (TrainingQueueItem item : items) {
+                    claim.setString(1, nodeId);
+                    claim.setLong(2, trainingLease.toSeconds());
+                    claim.setLong(3, item.id());
+                    claim.addBatch();
+                }
+                if (!items.isEmpty()) {
+                    claim.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao reservar itens da fila de treinamento", e);
+        }
+        return items;
+    }
+
+    @Override
+    public void renewTrainingLeases(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        final String sql = """
+                UPDATE llm_training_queue
+                SET lease_expires_at = SYSTIMESTAMP + NUMTODSINTERVAL(?, 'SECOND'),
+                    updated_at = SYSTIMESTAMP
+                WHERE id = ?
+                  AND status = 'PROCESSING'
+                  AND owner_node = ?
+                """;
         try (Connection connection = dataSource.getConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setInt(1, batchSize);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    items.add(new TrainingQueueItem(
-                            resultSet.getLong("id"),
-                            resultSet.getString("data_type"),
-                            resultSet.getString("data_characteristic"),
-                            resultSet.getString("content"),
-                            resultSet.getString("route_key"),
-                            resultSet.getString("module_key"),
-                            resultSet.getString("profile_id"),
-                            resultSet.getString("source_type")
-                    ));
+            for (long id : ids) {
+                statement.setLong(1, trainingLease.toSeconds());
+                statement.setLong(2, id);
+                statement.setString(3, nodeId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao renovar reservas da fila de treinamento", e);
+        }
+    }
+
+    @Override
+    public int releaseExpiredTrainingLeases() {
+        final String deadSql = """
+                UPDATE llm_training_queue
+                SET status = 'DEAD',
+                    last_error = 'Reserva expirada na ultima tentativa',
+                    owner_node = NULL,
+                    lease_expires_at = NULL,
+                    updated_at = SYSTIMESTAMP
+                WHERE status = 'PROCESSING'
+                  AND lease_expires_at < SYSTIMESTAMP
+                  AND attempts >= ?
+                """;
+        final String pendingSql = """
+                UPDATE llm_training_queue
+                SET status = 'PENDING',
+                    owner_node = NULL,
+                    lease_expires_at = NULL,
+                    updated_at = SYSTIMESTAMP
+                WHERE status = 'PROCESSING'
+                  AND lease_expires_at < SYSTIMESTAMP
+                """;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement dead = connection.prepareStatement(deadSql);
+                 PreparedStatement pending = connection.prepareStatement(pendingSql)) {
+                dead.setInt(1, Math.max(1, trainingMaxAttempts));
+                int exhausted = dead.executeUpdate();
+                int released = pending.executeUpdate();
+                connection.commit();
+                if (exhausted > 0) {
+                    LOG.warnf("%d itens de treinamento com reserva expirada na ultima tentativa foram para DEAD", exhausted);
                 }
+                return released;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
             }
         } catch (SQLException e) {
-            throw new IllegalStateException("Erro ao carregar fila de treinamento", e);
+            throw new IllegalStateException("Erro ao liberar reservas expiradas da fila de treinamento", e);
         }
-        return items;
     }
 
     @Override
     public void markTrainingDone(long id) {
-        updateTrainingStatus(id, "DONE", null);
+        recordTrainingOutcomes(List.of(TrainingOutcome.done(id)));
     }
 
     @Override
     public void markTrainingFailed(long id, String reason) {
-        updateTrainingStatus(id, "FAILED", reason);
+        recordTrainingOutcomes(List.of(TrainingOutcome.failed(id, reason)));
+    }
+
+    @Override
+    public void scheduleTrainingRetry(long id, String reason, Instant nextRunAt) {
+        recordTrainingOutcomes(List.of(TrainingOutcome.retry(id, reason, nextRunAt)));
+    }
+
+    @Override
+    public void markTrainingDead(long id, String reason) {
+        recordTrainingOutcomes(List.of(TrainingOutcome.dead(id, reason)));
+    }
+
+    @Override
+    public void recordTrainingOutcomes(List<TrainingOutcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+        final String sql = """
+                UPDATE llm_training_queue
+                SET status = ?,
+                    last_error = ?,
+                    next_run_at = ?,
+                    owner_node = NULL,
+                    lease_expires_at = NULL,
+                    updated_at = SYSTIMESTAMP
+                WHERE id = ?
+                  AND status = 'PROCESSING'
+                  AND owner_node = ?
+                """;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (TrainingOutcome outcome : outcomes) {
+                    statement.setString(1, outcome.status());
+                    statement.setString(2, truncate(outcome.reason(), 2000));
+                    statement.setTimestamp(3, outcome.nextRunAt() == null ? null : java.sql.Timestamp.from(outcome.nextRunAt()));
+                    statement.setLong(4, outcome.id());
+                    statement.setString(5, nodeId);
+                    statement.addBatch();
+                }
+                int[] updated = statement.executeBatch();
+                connection.commit();
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        TrainingOutcome outcome = outcomes.get(i);
+                        LOG.warnf("Item de treinamento id=%d nao pertence mais ao no %s; status %s descartado",
+                                outcome.id(), nodeId, outcome.status());
+                    }
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao atualizar lote de status da fila de treinamento", e);
+        }
     }
 
     @Override
-    public void enqueueTrainingItem(
-            String dataType,
-            String dataCharacteristic,
-            String content,
-            String routeKey,
+    public int enqueueTrainingItems(Map<String, TrainingMessage> messagesByContentHash) {
+        if (messagesByContentHash.isEmpty()) {
+            return 0;
+        }
+        final String sql = """
+                MERGE INTO llm_training_queue q
+                USING (SELECT ? AS content_hash FROM dual) s
+                ON (CASE WHEN q.status IN ('PENDING', 'PROCESSING', 'DONE') THEN q.content_hash END = s.content_hash)
+                WHEN NOT MATCHED THEN INSERT
+                    (data_type, data_characteristic, route_key, module_key, profile_id, source_type, content, content_hash,
+                     status, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, s.content_hash, 'PENDING', SYSTIMESTAMP, SYSTIMESTAMP)
+                """;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                int inserted;
+                try {
+                    inserted = enqueueInBatches(connection, sql, messagesByContentHash);
+                } catch (SQLException e) {
+                    if (!isUniqueViolation(e)) {
+                        throw e;
+                    }
+                    connection.rollback();
+                    inserted = enqueueOneByOne(connection, sql, messagesByContentHash);
+                }
+                connection.commit();
+                return inserted;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao enfileirar lote de itens de treinamento", e);
+        }
+    }
+
+    private static int enqueueInBatches(Connection connection, String sql, Map<String, TrainingMessage> messagesByContentHash)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int inserted = 0;
+            int pending = 0;
+            for (Map.Entry<String, TrainingMessage> entry : messagesByContentHash.entrySet()) {
+                bindTrainingItem(statement, entry.getKey(), entry.getValue());
+                statement.addBatch();
+                if (++pending == ENQUEUE_BATCH_CHUNK) {
+                    inserted += sum(statement.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                inserted += sum(statement.executeBatch());
+            }
+            return inserted;
+        }
+    }
+
+    private static int enqueueOneByOne(Connection connection, String sql, Map<String, TrainingMessage> messagesByContentHash)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int inserted = 0;
+            for (Map.Entry<String, TrainingMessage> entry : messagesByContentHash.entrySet()) {
+                bindTrainingItem(statement, entry.getKey(), entry.getValue());
+                try {
+                    inserted += statement.executeUpdate();
+                } catch (SQLException e) {
+                    if (!isUniqueViolation(e)) {
+                        throw e;
+                    }
+                    LOG.debugf("Item de treinamento com hash %s ja enfileirado por outro no", entry.getKey());
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static void bindTrainingItem(PreparedStatement statement, String contentHash, TrainingMessage message)
+            throws SQLException {
+        statement.setString(1, contentHash);
+        statement.setString(2, message.dataType());
+        statement.setString(3, message.dataCharacteristic());
+        statement.setString(4, message.routeKey());
+        statement.setString(5, message.moduleKey());
+        statement.setString(6, message.profileId());
+        statement.setString(7, message.sourceType());
+        statement.setString(8, message.content());
+    }
+
+    private static boolean isUniqueViolation(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current.getErrorCode() == UNIQUE_CONSTRAINT_VIOLATED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ContextBundle loadContextBundle(
+            long routeId,
             String moduleKey,
             String profileId,
-            String sourceType
+            int routeLimit,
+            int moduleLimit,
+            int profileLimit
     ) {
         final String sql = """
-                INSERT INTO llm_training_queue
-                    (data_type, data_characteristic, route_key, module_key, profile_id, source_type, content, status, created_at, updated_at)
-                VALUES (?, ?, ?, ?, ?, ?, ?, 'PENDING', SYSTIMESTAMP, SYSTIMESTAMP)
+                SELECT section, context_text
+                FROM (
+                    SELECT 1 AS section, rn, context_text
+                    FROM (
+                        SELECT context_text, ROW_NUMBER() OVER (ORDER BY updated_at DESC) AS rn
+                        FROM llm_route_context
+                        WHERE route_id = ?
+                    )
+                    WHERE rn <= ?
+                    UNION ALL
+                    SELECT 2 AS section, rn, context_text
+                    FROM (
+                        SELECT context_text, ROW_NUMBER() OVER (ORDER BY updated_at DESC) AS rn
+                        FROM llm_module_context
+                        WHERE route_id = ?
+                          AND module_key = ?
+                    )
+                    WHERE rn <= ?
+                    UNION ALL
+                    SELECT 3 AS section, rn, context_text
+                    FROM (
+                        SELECT context_text, ROW_NUMBER() OVER (ORDER BY updated_at DESC) AS rn
+                        FROM llm_profile_context
+                        WHERE profile_id = ?
+                          AND module_key = ?
+                    )
+                    WHERE rn <= ?
+                )
+                ORDER BY section, rn
                 """;
+        boolean hasModule = moduleKey != null && !moduleKey.isBlank();
+        boolean hasProfile = profileId != null && !profileId.isBlank();
+        String effectiveProfileModule = hasModule ? moduleKey : "GENERAL";
+        int effectiveModuleLimit = hasModule ? moduleLimit : 0;
+        int effectiveProfileLimit = hasProfile ? profileLimit : 0;
+
+        List<String> routeSnippets = new ArrayList<>();
+        List<String> moduleSnippets = new ArrayList<>();
+        List<String> profileSnippets = new ArrayList<>();
         try (Connection connection = dataSource.getConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, dataType);
-            statement.setString(2, dataCharacteristic);
-            statement.setString(3, routeKey);
+            statement.setFetchSize(Math.max(1, routeLimit + effectiveModuleLimit + effectiveProfileLimit));
+            statement.setLong(1, routeId);
+            statement.setInt(2, routeLimit);
+            statement.setLong(3, routeId);
             statement.setString(4, moduleKey);
-            statement.setString(5, profileId);
-            statement.setString(6, sourceType);
-            statement.setString(7, content);
-            statement.executeUpdate();
+            statement.setInt(5, effectiveModuleLimit);
+            statement.setString(6, profileId);
+            statement.setString(7, effectiveProfileModule);
+            statement.setInt(8, effectiveProfileLimit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String text = resultSet.getString("context_text");
+                    switch (resultSet.getInt("section")) {
+                        case 1 -> routeSnippets.add(text);
+                        case 2 -> moduleSnippets.add(text);
+                        default -> profileSnippets.add(text);
+                    }
+                }
+            }
         } catch (SQLException e) {
-            throw new IllegalStateException("Erro ao enfileirar item de treinamento", e);
+            throw new IllegalStateException("Erro ao carregar contexto combinado no Oracle", e);
         }
+        return new ContextBundle(routeSnippets, moduleSnippets, profileSnippets);
     }
 
     @Override
@@ -228,60 +761,230 @@ public class OracleLlmConfigAdapter implements RouteConfigPort, RequestLogPort,
     }
 
     @Override
-    public void saveModuleContext(long routeId, String moduleKey, String contextText, String sourceType) {
+    public boolean saveModuleContext(long routeId, String moduleKey, String contextText, String contentHash, String sourceType) {
         final String sql = """
-                INSERT INTO llm_module_context
-                    (route_id, module_key, source_type, context_text, updated_at)
-                VALUES (?, ?, ?, ?, SYSTIMESTAMP)
+                MERGE INTO llm_module_context c
+                USING (SELECT ? AS route_id, ? AS module_key, ? AS content_hash FROM dual) s
+                ON (c.route_id = s.route_id AND c.module_key = s.module_key AND c.content_hash = s.content_hash)
+                WHEN NOT MATCHED THEN INSERT
+                    (route_id, module_key, source_type, context_text, content_hash, updated_at)
+                VALUES (s.route_id, s.module_key, ?, ?, s.content_hash, SYSTIMESTAMP)
                 """;
         try (Connection connection = dataSource.getConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setLong(1, routeId);
             statement.setString(2, moduleKey);
-            statement.setString(3, sourceType);
-            statement.setString(4, contextText);
-            statement.executeUpdate();
+            statement.setString(3, contentHash);
+            statement.setString(4, sourceType);
+            statement.setString(5, contextText);
+            return statement.executeUpdate() > 0;
         } catch (SQLException e) {
+            if (isUniqueViolation(e)) {
+                return false;
+            }
             throw new IllegalStateException("Erro ao salvar contexto de modulo", e);
         }
     }
 
     @Override
-    public void saveProfileContext(String profileId, String moduleKey, String contextText, String sourceType) {
+    public boolean saveProfileContext(String profileId, String moduleKey, String contextText, String contentHash, String sourceType) {
         final String sql = """
-                INSERT INTO llm_profile_context
-                    (profile_id, module_key, source_type, context_text, updated_at)
-                VALUES (?, ?, ?, ?, SYSTIMESTAMP)
+                MERGE INTO llm_profile_context c
+                USING (SELECT ? AS profile_id, ? AS module_key, ? AS content_hash FROM dual) s
+                ON (c.profile_id = s.profile_id AND c.module_key = s.module_key AND c.content_hash = s.content_hash)
+                WHEN NOT MATCHED THEN INSERT
+                    (profile_id, module_key, source_type, context_text, content_hash, updated_at)
+                VALUES (s.profile_id, s.module_key, ?, ?, s.content_hash, SYSTIMESTAMP)
                 """;
         try (Connection connection = dataSource.getConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setString(1, profileId);
             statement.setString(2, moduleKey);
-            statement.setString(3, sourceType);
-            statement.setString(4, contextText);
-            statement.executeUpdate();
+            statement.setString(3, contentHash);
+            statement.setString(4, sourceType);
+            statement.setString(5, contextText);
+            return statement.executeUpdate() > 0;
         } catch (SQLException e) {
+            if (isUniqueViolation(e)) {
+                return false;
+            }
             throw new IllegalStateException("Erro ao salvar contexto de perfil", e);
         }
     }
 
-    private void updateTrainingStatus(long id, String status, String reason) {
-        final String sql = """
-                UPDATE llm_training_queue
-                SET status = ?,
-                    last_error = ?,
-                    updated_at = SYSTIMESTAMP
-                WHERE id = ?
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    @Override
+    public List<ContextCompactionTarget> findCompactionTargets(String scope, int keepLatest, int minCompactableRows, int limit) {
+        final String sql = ContextCompactionTarget.MODULE.equals(scope)
+                ? """
+                SELECT TO_CHAR(c.route_id) AS owner_id, c.module_key, r.provider, r.model_name, COUNT(*) AS row_count
+                FROM llm_module_context c
+                JOIN llm_route_config r ON r.route_id = c.route_id
+                WHERE NVL(c.source_type, '-') <> 'SUMMARY'
+                GROUP BY c.route_id, c.module_key, r.provider, r.model_name
+                HAVING COUNT(*) >= ?
+                ORDER BY COUNT(*) DESC
+                FETCH FIRST ? ROWS ONLY
+                """
+                : """
+                SELECT profile_id AS owner_id, module_key, NULL AS provider, NULL AS model_name, COUNT(*) AS row_count
+                FROM llm_profile_context
+                WHERE NVL(source_type, '-') <> 'SUMMARY'
+                GROUP BY profile_id, module_key
+                HAVING COUNT(*) >= ?
+                ORDER BY COUNT(*) DESC
+                FETCH FIRST ? ROWS ONLY
                 """;
+        List<ContextCompactionTarget> targets = new ArrayList<>();
         try (Connection connection = dataSource.getConnection();
              PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, status);
-            statement.setString(2, reason);
-            statement.setLong(3, id);
-            statement.executeUpdate();
+            statement.setInt(1, keepLatest + minCompactableRows);
+            statement.setInt(2, limit);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    targets.add(new ContextCompactionTarget(
+                            scope,
+                            rs.getString("owner_id"),
+                            rs.getString("module_key"),
+                            rs.getString("provider"),
+                            rs.getString("model_name"),
+                            rs.getInt("row_count")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao listar contextos para compactacao", e);
+        }
+        return targets;
+    }
+
+    @Override
+    public List<ContextSnippet> loadCompactableContext(ContextCompactionTarget target, int keepLatest, int maxRows) {
+        final String sql = """
+                SELECT context_id, context_text, source_type
+                FROM (
+                    SELECT context_id, context_text, source_type, updated_at,
+                           CASE WHEN source_type = 'SUMMARY' THEN 0 ELSE 1 END AS kind,
+                           ROW_NUMBER() OVER (
+                               PARTITION BY CASE WHEN source_type = 'SUMMARY' THEN 0 ELSE 1 END
+                               ORDER BY updated_at DESC
+                           ) AS recency
+                    FROM %s
+                    WHERE %s = ?
+                      AND module_key = ?
+                )
+                WHERE kind = 0 OR recency > ?
+                ORDER BY kind, updated_at
+                FETCH FIRST ? ROWS ONLY
+                """.formatted(contextTable(target), ownerColumn(target));
+        List<ContextSnippet> snippets = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            bindOwner(statement, 1, target);
+            statement.setString(2, target.moduleKey());
+            statement.setInt(3, keepLatest);
+            statement.setInt(4, maxRows);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    snippets.add(new ContextSnippet(rs.getLong("context_id"), rs.getString("context_text"), rs.getString("source_type")));
+                }
+            }
         } catch (SQLException e) {
-            throw new IllegalStateException("Erro ao atualizar status da fila de treinamento", e);
+            throw new IllegalStateException("Erro ao carregar contexto para compactacao", e);
+        }
+        return snippets;
+    }
+
+    @Override
+    public boolean replaceWithSummary(ContextCompactionTarget target, String summary, List<Long> supersededIds) {
+        String table = contextTable(target);
+        String owner = ownerColumn(target);
+        final String archiveSql = """
+                INSERT INTO llm_context_archive
+                    (scope, owner_id, module_key, source_type, context_text, content_hash, original_updated_at, archived_at)
+                SELECT ?, TO_CHAR(%s), module_key, source_type, context_text, content_hash, updated_at, SYSTIMESTAMP
+                FROM %s
+                WHERE context_id = ?
+                """.formatted(owner, table);
+        final String deleteSql = "DELETE FROM %s WHERE context_id = ?".formatted(table);
+        final String insertSql = """
+                INSERT INTO %s (%s, module_key, source_type, context_text, updated_at)
+                VALUES (?, ?, 'SUMMARY', ?, SYSTIMESTAMP)
+                """.formatted(table, owner);
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (archiveCompactedContext) {
+                    try (PreparedStatement statement = connection.prepareStatement(archiveSql)) {
+                        for (Long id : supersededIds) {
+                            statement.setString(1, target.scope());
+                            statement.setLong(2, id);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                }
+                int deleted;
+                try (PreparedStatement statement = connection.prepareStatement(deleteSql)) {
+                    for (Long id : supersededIds) {
+                        statement.setLong(1, id);
+                        statement.addBatch();
+                    }
+                    deleted = sum(statement.executeBatch());
+                }
+                if (deleted != supersededIds.size()) {
+                    connection.rollback();
+                    return false;
+                }
+                try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+                    bindOwner(statement, 1, target);
+                    statement.setString(2, target.moduleKey());
+                    statement.setString(3, summary);
+                    statement.executeUpdate();
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro ao gravar resumo compactado de contexto", e);
+        }
+    }
+
+    private static String contextTable(ContextCompactionTarget target) {
+        return target.moduleScope() ? "llm_module_context" : "llm_profile_context";
+    }
+
+    private static String ownerColumn(ContextCompactionTarget target) {
+        return target.moduleScope() ? "route_id" : "profile_id";
+    }
+
+    private static void bindOwner(PreparedStatement statement, int index, ContextCompactionTarget target) throws SQLException {
+        if (target.moduleScope()) {
+            statement.setLong(index, Long.parseLong(target.ownerId()));
+        } else {
+            statement.setString(index, target.ownerId());
+        }
+    }
+
+    private static String truncate(String value, int maxBytes) {
+        if (value == null) {
+            return null;
         }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= maxBytes ? value : new String(bytes, 0, maxBytes - 3, StandardCharsets.UTF_8);
     }
 
     private static Double getNullableDouble(ResultSet rs, String column) throws SQLException {
@@ -0,0 +1,350 @@
+package br.com.ai.connector.adapter.out.oracle;
+
+import br.com.ai.connector.application.port.out.RequestLogPort;
+import br.com.ai.connector.dto.RequestLogEntry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Alternative
+@Priority(1)
+@ApplicationScoped
+public class WriteBehindRequestLogAdapter implements RequestLogPort {
+
+    private static final Logger LOG = Logger.getLogger(WriteBehindRequestLogAdapter.class);
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK,
+        SPILL
+    }
+
+    @Inject
+    OracleLlmConfigAdapter oracleAdapter;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "request-log.write-behind.enabled")
+    boolean enabled;
+
+    @ConfigProperty(name = "request-log.write-behind.capacity")
+    int capacity;
+
+    @ConfigProperty(name = "request-log.write-behind.batch-size")
+    int batchSize;
+
+    @ConfigProperty(name = "request-log.write-behind.flush-interval")
+    Duration flushInterval;
+
+    @ConfigProperty(name = "request-log.write-behind.overflow-policy")
+    OverflowPolicy overflowPolicy;
+
+    @ConfigProperty(name = "request-log.write-behind.block-timeout")
+    Duration blockTimeout;
+
+    @ConfigProperty(name = "request-log.write-behind.spill-file")
+    String spillFilePath;
+
+    @ConfigProperty(name = "request-log.write-behind.shutdown-timeout")
+    Duration shutdownTimeout;
+
+    @ConfigProperty(name = "request-log.write-behind.replay-max-backoff")
+    Duration replayMaxBackoff;
+
+    @ConfigProperty(name = "request-log.write-behind.replay-max-batches")
+    int replayMaxBatches;
+
+    private final ConcurrentLinkedQueue<RequestLogEntry> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Object spillLock = new Object();
+    private final ReentrantLock spaceLock = new ReentrantLock();
+    private final Condition spaceAvailable = spaceLock.newCondition();
+    private volatile boolean running;
+    private Thread flusher;
+    private Path spillFile;
+    private Path replayFile;
+    private long replayedLines;
+    private long replayBackoffNanos;
+    private long nextReplayAt;
+
+    private Counter written;
+    private Counter dropped;
+    private Counter spilled;
+    private Counter flushFailures;
+    private Timer flushTimer;
+
+    @PostConstruct
+    void init() {
+        spillFile = Path.of(spillFilePath);
+        replayFile = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+        written = meterRegistry.counter("connector.request.log.entries", "outcome", "written");
+        dropped = meterRegistry.counter("connector.request.log.entries", "outcome", "dropped");
+        spilled = meterRegistry.counter("connector.request.log.entries", "outcome", "spilled");
+        flushFailures = meterRegistry.counter("connector.request.log.flush.failures");
+        flushTimer = Timer.builder("connector.request.log.flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("connector.request.log.queue.depth", depth, AtomicInteger::get).register(meterRegistry);
+
+        if (enabled) {
+            running = true;
+            flusher = Thread.ofPlatform()
+                    .name("request-log-flusher")
+                    .daemon()
+                    .start(this::runFlusher);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (depth.get() > 0) {
+            LOG.warnf("Encerrando com %d logs de requisicao pendentes; gravando no arquivo de spill", depth.get());
+            spill(drain(Integer.MAX_VALUE));
+        }
+    }
+
+    @Override
+    public void saveRequestLog(String routeKey, String provider, String model, String requestSummary, String responseSummary) {
+        RequestLogEntry entry = new RequestLogEntry(routeKey, provider, model, requestSummary, responseSummary, Instant.now());
+        if (!enabled) {
+            oracleAdapter.saveRequestLogs(List.of(entry));
+            return;
+        }
+        if (offer(entry)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                if (!offerWithin(entry, blockTimeout)) {
+                    dropped.increment();
+                }
+            }
+            case SPILL -> spill(List.of(entry));
+            default -> dropped.increment();
+        }
+    }
+
+    private boolean offer(RequestLogEntry entry) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            return false;
+        }
+        buffer.offer(entry);
+        if (depth.get() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+        return true;
+    }
+
+    private boolean offerWithin(RequestLogEntry entry, Duration timeout) {
+        long remaining = timeout.toNanos();
+        spaceLock.lock();
+        try {
+            while (!offer(entry)) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = spaceAvailable.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            spaceLock.unlock();
+        }
+    }
+
+    private void signalSpace() {
+        spaceLock.lock();
+        try {
+            spaceAvailable.signalAll();
+        } finally {
+            spaceLock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        long intervalNanos = flushInterval.toNanos();
+        while (running || depth.get() > 0) {
+            if (running && depth.get() < batchSize) {
+                LockSupport.parkNanos(intervalNanos);
+            }
+            List<RequestLogEntry> batch = drain(batchSize);
+            boolean flushed = batch.isEmpty() || flush(batch);
+            if (flushed && running) {
+                replaySpillFile();
+            }
+        }
+    }
+
+    private List<RequestLogEntry> drain(int max) {
+        List<RequestLogEntry> batch = new ArrayList<>(Math.min(max, Math.max(depth.get(), 1)));
+        RequestLogEntry entry;
+        while (batch.size() < max && (entry = buffer.poll()) != null) {
+            depth.decrementAndGet();
+            batch.add(entry);
+        }
+        if (!batch.isEmpty() && overflowPolicy == OverflowPolicy.BLOCK) {
+            signalSpace();
+        }
+        return batch;
+    }
+
+    private boolean flush(List<RequestLogEntry> batch) {
+        try {
+            write(batch);
+            replayBackoffNanos = 0;
+            return true;
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Falha ao gravar lote de %d logs de requisicao", batch.size());
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                spill(batch);
+            } else {
+                dropped.increment(batch.size());
+            }
+            return false;
+        }
+    }
+
+    private void write(List<RequestLogEntry> batch) {
+        long start = System.nanoTime();
+        try {
+            oracleAdapter.saveRequestLogs(batch);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            throw e;
+        } finally {
+            flushTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private void spill(List<RequestLogEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        synchronized (spillLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (RequestLogEntry entry : entries) {
+                    writer.write(objectMapper.writeValueAsString(entry));
+                    writer.newLine();
+                }
+                spilled.increment(entries.size());
+            } catch (IOException e) {
+                dropped.increment(entries.size());
+                LOG.errorf(e, "Falha ao gravar %d logs de requisicao no arquivo de spill %s", entries.size(), spillFile);
+            }
+        }
+    }
+
+    void replaySpillFile() {
+        if (replayBackoffNanos > 0 && System.nanoTime() - nextReplayAt < 0) {
+            return;
+        }
+        synchronized (spillLock) {
+            if (!Files.exists(replayFile)) {
+                if (!Files.exists(spillFile)) {
+                    return;
+                }
+                try {
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                    replayedLines = 0;
+                } catch (IOException e) {
+                    LOG.warnf(e, "Falha ao preparar reprocessamento do arquivo de spill %s", spillFile);
+                    return;
+                }
+            }
+        }
+        List<RequestLogEntry> batch = new ArrayList<>(batchSize);
+        long line = 0;
+        int batches = 0;
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                if (++line <= replayedLines || text.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(text, RequestLogEntry.class));
+                } catch (JsonProcessingException e) {
+                    dropped.increment();
+                    LOG.warnf("Linha invalida ignorada no arquivo de spill %s", replayFile);
+                }
+                if (batch.size() >= batchSize) {
+                    write(batch);
+                    replayedLines = line;
+                    batch = new ArrayList<>(batchSize);
+                    if (++batches >= replayMaxBatches) {
+                        return;
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                replayedLines = line;
+            }
+            Files.delete(replayFile);
+            replayedLines = 0;
+            replayBackoffNanos = 0;
+        } catch (RuntimeException e) {
+            postponeReplay(e);
+        } catch (IOException e) {
+            LOG.errorf(e, "Falha ao reprocessar arquivo de spill %s", replayFile);
+        }
+    }
+
+    private void postponeReplay(RuntimeException cause) {
+        replayBackoffNanos = replayBackoffNanos == 0
+                ? flushInterval.toNanos()
+                : Math.min(replayBackoffNanos * 2, replayMaxBackoff.toNanos());
+        nextReplayAt = System.nanoTime() + replayBackoffNanos;
+        LOG.warnf("Reprocessamento do arquivo de spill %s falhou (%s); nova tentativa em %d ms",
+                replayFile, cause.getMessage(), TimeUnit.NANOSECONDS.toMillis(replayBackoffNanos));
+    }
+}
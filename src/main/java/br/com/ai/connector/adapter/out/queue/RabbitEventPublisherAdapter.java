@@ -4,12 +4,29 @@ import br.com.ai.connector.application.port.out.EventPublisherPort;
 import br.com.ai.connector.dto.ConnectorEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.smallrye.reactive.messaging.annotations.Channel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
 import org.jboss.logging.Logger;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
 @ApplicationScoped
 public class RabbitEventPublisherAdapter implements EventPublisherPort {
 
@@ -22,14 +39,168 @@ public class RabbitEventPublisherAdapter implements EventPublisherPort {
     @Inject
     ObjectMapper objectMapper;
 
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "events.publisher.capacity")
+    int capacity;
+
+    @ConfigProperty(name = "events.publisher.batch-size")
+    int batchSize;
+
+    @ConfigProperty(name = "events.publisher.linger")
+    Duration linger;
+
+    @ConfigProperty(name = "events.publisher.max-in-flight")
+    int maxInFlight;
+
+    @ConfigProperty(name = "events.publisher.max-retries")
+    int maxRetries;
+
+    @ConfigProperty(name = "events.publisher.shutdown-timeout")
+    Duration shutdownTimeout;
+
+    private final ConcurrentLinkedQueue<PendingEvent> backlog = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private ObjectWriter eventWriter;
+    private Semaphore inFlight;
+    private volatile boolean running;
+    private Thread publisher;
+
+    private Counter published;
+    private Counter retried;
+    private Counter dropped;
+    private Timer confirmTimer;
+
+    @PostConstruct
+    void init() {
+        eventWriter = objectMapper.writerFor(ConnectorEvent.class);
+        inFlight = new Semaphore(maxInFlight);
+        published = meterRegistry.counter("connector.events.published");
+        retried = meterRegistry.counter("connector.events.retried");
+        dropped = meterRegistry.counter("connector.events.dropped");
+        confirmTimer = Timer.builder("connector.events.confirm")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("connector.events.backlog", depth, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("connector.events.in.flight", inFlight, s -> maxInFlight - s.availablePermits()).register(meterRegistry);
+
+        running = true;
+        publisher = Thread.ofPlatform()
+                .name("connector-events-publisher")
+                .daemon()
+                .start(this::runPublisher);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(publisher);
+        try {
+            publisher.join(shutdownTimeout.toMillis());
+            if (!inFlight.tryAcquire(maxInFlight, shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOG.warnf("Encerrando com %d eventos aguardando confirmacao", maxInFlight - inFlight.availablePermits());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (depth.get() > 0) {
+            LOG.warnf("Encerrando com %d eventos nao publicados", depth.get());
+            dropped.increment(depth.get());
+        }
+    }
+
     @Override
     public void publish(ConnectorEvent event) {
+        if (!enqueue(new PendingEvent(event, null, 0))) {
+            dropped.increment();
+            LOG.warnf("Fila de eventos cheia; evento %s da rota %s descartado", event.eventType(), event.routeKey());
+        }
+    }
+
+    private boolean enqueue(PendingEvent pending) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            return false;
+        }
+        backlog.offer(pending);
+        if (depth.get() >= batchSize) {
+            LockSupport.unpark(publisher);
+        }
+        return true;
+    }
+
+    private void runPublisher() {
+        long lingerNanos = linger.toNanos();
+        while (running || depth.get() > 0) {
+            if (running && depth.get() < batchSize) {
+                LockSupport.parkNanos(lingerNanos);
+            }
+            for (PendingEvent pending : drain()) {
+                send(pending);
+            }
+        }
+    }
+
+    private List<PendingEvent> drain() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        PendingEvent pending;
+        while (batch.size() < batchSize && (pending = backlog.poll()) != null) {
+            depth.decrementAndGet();
+            batch.add(pending);
+        }
+        return batch;
+    }
+
+    private void send(PendingEvent pending) {
+        String payload;
         try {
-            eventEmitter.send(objectMapper.writeValueAsString(event));
+            payload = pending.payload() != null ? pending.payload() : eventWriter.writeValueAsString(pending.event());
         } catch (JsonProcessingException e) {
+            dropped.increment();
             LOG.error("Falha ao serializar evento do conector", e);
+            return;
+        }
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            enqueue(pending);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            eventEmitter.send(payload).whenComplete((ignored, failure) -> {
+                try {
+                    confirmTimer.record(Duration.ofNanos(System.nanoTime() - start));
+                    if (failure == null) {
+                        published.increment();
+                    } else {
+                        retry(new PendingEvent(pending.event(), payload, pending.attempt()), failure);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
         } catch (Exception e) {
-            LOG.error("Falha ao publicar evento RabbitMQ", e);
+            try {
+                retry(new PendingEvent(pending.event(), payload, pending.attempt()), e);
+            } finally {
+                inFlight.release();
+            }
         }
     }
+
+    private void retry(PendingEvent pending, Throwable failure) {
+        if (pending.attempt() < maxRetries && enqueue(new PendingEvent(pending.event(), pending.payload(), pending.attempt() + 1))) {
+            retried.increment();
+            LOG.debugf(failure, "Reenfileirando evento %s (tentativa %d)", pending.event().eventType(), pending.attempt() + 1);
+            return;
+        }
+        dropped.increment();
+        LOG.error("Falha ao publicar evento RabbitMQ", failure);
+    }
+
+    private record PendingEvent(ConnectorEvent event, String payload, int attempt) {
+    }
 }
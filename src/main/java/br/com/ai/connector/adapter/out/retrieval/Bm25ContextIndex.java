@@ -0,0 +1,298 @@
+package br.com.ai.connector.adapter.out.retrieval;
+
+import br.com.ai.connector.application.port.out.ContextRetrievalPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@ApplicationScoped
+public class Bm25ContextIndex implements ContextRetrievalPort {
+
+    private static final Logger LOG = Logger.getLogger(Bm25ContextIndex.class);
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "context.retrieval.max-per-partition")
+    int maxPerPartition;
+
+    @ConfigProperty(name = "context.retrieval.bm25.k1")
+    double k1;
+
+    @ConfigProperty(name = "context.retrieval.bm25.b")
+    double b;
+
+    @ConfigProperty(name = "context.retrieval.bm25.latency-budget-micros")
+    long latencyBudgetMicros;
+
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private Timer searchTimer;
+    private Counter overBudget;
+
+    @PostConstruct
+    void init() {
+        searchTimer = Timer.builder("connector.context.retrieval.duration")
+                .tag("engine", "bm25")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        overBudget = meterRegistry.counter("connector.context.retrieval.over.budget", "engine", "bm25");
+        Gauge.builder("connector.context.retrieval.snippets", partitions,
+                        map -> map.values().stream().mapToInt(Partition::size).sum())
+                .tag("engine", "bm25")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void index(String partition, List<String> snippets) {
+        if (snippets.isEmpty()) {
+            return;
+        }
+        Partition target = partitions.computeIfAbsent(partition, key -> new Partition());
+        for (String snippet : snippets) {
+            if (snippet != null && !snippet.isBlank() && !target.contains(snippet)) {
+                target.add(snippet, PortugueseAnalyzer.analyze(snippet), maxPerPartition);
+            }
+        }
+    }
+
+    @Override
+    public void remove(String partition, List<String> snippets) {
+        Partition target = partitions.get(partition);
+        if (target != null) {
+            target.removeAll(snippets);
+        }
+    }
+
+    @Override
+    public void replace(String partition, List<String> snippets) {
+        Partition rebuilt = new Partition();
+        for (String snippet : snippets) {
+            if (snippet != null && !snippet.isBlank()) {
+                rebuilt.add(snippet, PortugueseAnalyzer.analyze(snippet), maxPerPartition);
+            }
+        }
+        partitions.put(partition, rebuilt);
+    }
+
+    @Override
+    public List<String> search(String partition, String query, int limit) {
+        Partition target = partitions.get(partition);
+        if (target == null || limit <= 0) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        Set<String> terms = new LinkedHashSet<>(PortugueseAnalyzer.analyze(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        List<String> result = target.search(terms, limit, k1, b);
+        long elapsed = System.nanoTime() - start;
+        searchTimer.record(Duration.ofNanos(elapsed));
+        if (TimeUnit.NANOSECONDS.toMicros(elapsed) > latencyBudgetMicros) {
+            overBudget.increment();
+            LOG.debugf("Busca BM25 na particao %s levou %d us (%d termos, %d trechos)",
+                    partition, TimeUnit.NANOSECONDS.toMicros(elapsed), terms.size(), target.size());
+        }
+        return result;
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    freqs[i] = freqs[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Partition {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final LinkedHashMap<String, Integer> slotsByText = new LinkedHashMap<>();
+        private String[][] slotTerms = new String[16][];
+        private int[] lengths = new int[16];
+        private String[] texts = new String[16];
+        private int[] freeSlots = new int[16];
+        private int freeCount;
+        private int slotCount;
+        private long totalLength;
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return slotsByText.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        boolean contains(String text) {
+            lock.readLock().lock();
+            try {
+                return slotsByText.containsKey(text);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void add(String text, List<String> terms, int capacity) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : terms) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            lock.writeLock().lock();
+            try {
+                if (slotsByText.containsKey(text)) {
+                    return;
+                }
+                int slot = allocateSlot();
+                texts[slot] = text;
+                lengths[slot] = terms.size();
+                slotTerms[slot] = frequencies.keySet().toArray(String[]::new);
+                frequencies.forEach((term, freq) -> postings.computeIfAbsent(term, key -> new Postings()).add(slot, freq));
+                slotsByText.put(text, slot);
+                totalLength += terms.size();
+                while (slotsByText.size() > capacity) {
+                    unlink(slotsByText.keySet().iterator().next());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void removeAll(List<String> removed) {
+            lock.writeLock().lock();
+            try {
+                for (String text : removed) {
+                    if (slotsByText.containsKey(text)) {
+                        unlink(text);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private int allocateSlot() {
+            if (freeCount > 0) {
+                return freeSlots[--freeCount];
+            }
+            if (slotCount == texts.length) {
+                int grown = slotCount * 2;
+                texts = Arrays.copyOf(texts, grown);
+                lengths = Arrays.copyOf(lengths, grown);
+                slotTerms = Arrays.copyOf(slotTerms, grown);
+            }
+            return slotCount++;
+        }
+
+        private void unlink(String text) {
+            int slot = slotsByText.remove(text);
+            for (String term : slotTerms[slot]) {
+                Postings list = postings.get(term);
+                list.remove(slot);
+                if (list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+            totalLength -= lengths[slot];
+            texts[slot] = null;
+            slotTerms[slot] = null;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+
+        List<String> search(Set<String> terms, int limit, double k1, double b) {
+            lock.readLock().lock();
+            try {
+                int documents = slotsByText.size();
+                if (documents == 0) {
+                    return List.of();
+                }
+                double averageLength = Math.max(1.0, (double) totalLength / documents);
+                float[] scores = new float[slotCount];
+                int[] touched = new int[slotCount];
+                int touchedCount = 0;
+                for (String term : terms) {
+                    Postings list = postings.get(term);
+                    if (list == null) {
+                        continue;
+                    }
+                    double idf = Math.log(1 + (documents - list.size + 0.5) / (list.size + 0.5));
+                    for (int i = 0; i < list.size; i++) {
+                        int slot = list.docs[i];
+                        int freq = list.freqs[i];
+                        double norm = k1 * (1 - b + b * lengths[slot] / averageLength);
+                        if (scores[slot] == 0) {
+                            touched[touchedCount++] = slot;
+                        }
+                        scores[slot] += (float) (idf * freq * (k1 + 1) / (freq + norm));
+                    }
+                }
+                return top(scores, touched, touchedCount, limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private List<String> top(float[] scores, int[] touched, int touchedCount, int limit) {
+            int[] best = new int[Math.min(limit, touchedCount)];
+            int size = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                if (size == best.length && scores[slot] <= scores[best[size - 1]]) {
+                    continue;
+                }
+                int position = size == best.length ? size - 1 : size++;
+                while (position > 0 && scores[best[position - 1]] < scores[slot]) {
+                    best[position] = best[position - 1];
+                    position--;
+                }
+                best[position] = slot;
+            }
+            String[] result = new String[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = texts[best[i]];
+            }
+            return List.of(result);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.ai.connector.adapter.out.retrieval;
+
+import br.com.ai.connector.application.port.out.ContextRetrievalPort;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+
+@Alternative
+@Priority(1)
+@ApplicationScoped
+public class ContextRetrievalRouter implements ContextRetrievalPort {
+
+    @Inject
+    VectorContextIndex vectorIndex;
+
+    @Inject
+    Bm25ContextIndex bm25Index;
+
+    @ConfigProperty(name = "context.retrieval.engine")
+    String engine;
+
+    @Override
+    public void index(String partition, List<String> snippets) {
+        if (!disabled()) {
+            delegate().index(partition, snippets);
+        }
+    }
+
+    @Override
+    public void remove(String partition, List<String> snippets) {
+        if (!disabled()) {
+            delegate().remove(partition, snippets);
+        }
+    }
+
+    @Override
+    public void replace(String partition, List<String> snippets) {
+        if (!disabled()) {
+            delegate().replace(partition, snippets);
+        }
+    }
+
+    @Override
+    public List<String> search(String partition, String query, int limit) {
+        return disabled() ? List.of() : delegate().search(partition, query, limit);
+    }
+
+    @Scheduled(every = "{context.retrieval.vector.snapshot-every}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void snapshotVectorIndex() {
+        if (!disabled() && delegate() == vectorIndex) {
+            vectorIndex.snapshot();
+        }
+    }
+
+    private boolean disabled() {
+        return engine == null || "NONE".equalsIgnoreCase(engine);
+    }
+
+    private ContextRetrievalPort delegate() {
+        return "BM25".equalsIgnoreCase(engine) ? bm25Index : vectorIndex;
+    }
+}
@@ -0,0 +1,84 @@
+package br.com.ai.connector.adapter.out.retrieval;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+final class PortugueseAnalyzer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "um", "uma", "uns", "umas", "de", "do", "da", "dos", "das", "em", "no", "na",
+            "nos", "nas", "num", "numa", "ao", "aos", "pelo", "pela", "pelos", "pelas", "para", "pra", "por",
+            "com", "sem", "sob", "sobre", "entre", "ate", "apos", "e", "ou", "mas", "nem", "que", "se", "como",
+            "quando", "onde", "porque", "pois", "qual", "quais", "quem", "nao", "sim", "ja", "mais", "menos",
+            "muito", "muita", "tambem", "so", "isso", "isto", "aquilo", "esse", "essa", "esses", "essas", "este",
+            "esta", "estes", "estas", "aquele", "aquela", "aqueles", "aquelas", "ele", "ela", "eles", "elas",
+            "eu", "tu", "voce", "voces", "me", "te", "lhe", "lhes", "seu", "sua", "seus", "suas", "meu", "minha",
+            "meus", "minhas", "nosso", "nossa", "nossos", "nossas", "dele", "dela", "deles", "delas", "ser",
+            "foi", "sao", "era", "ha", "tem", "ter", "fazer", "faz", "fazem"
+    );
+
+    private PortugueseAnalyzer() {
+    }
+
+    static List<String> analyze(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> terms = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String token) {
+        if (token.length() < 4 || Character.isDigit(token.charAt(0))) {
+            return token;
+        }
+        String stem = plural(token);
+        if (stem.length() > 7 && stem.endsWith("mente")) {
+            stem = stem.substring(0, stem.length() - 5);
+        }
+        if (stem.length() > 6 && (stem.endsWith("inho") || stem.endsWith("inha"))) {
+            stem = stem.substring(0, stem.length() - 4);
+        }
+        if (stem.length() > 5 && (stem.endsWith("ar") || stem.endsWith("er") || stem.endsWith("ir"))) {
+            return stem.substring(0, stem.length() - 2);
+        }
+        if (stem.length() > 4 && (stem.endsWith("a") || stem.endsWith("e") || stem.endsWith("o"))) {
+            return stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static String plural(String token) {
+        if (!token.endsWith("s") || token.length() < 5) {
+            return token;
+        }
+        if (token.endsWith("oes") || token.endsWith("aes")) {
+            return token.substring(0, token.length() - 3) + "ao";
+        }
+        if (token.endsWith("ais") || token.endsWith("eis") || token.endsWith("ois")) {
+            return token.substring(0, token.length() - 2) + "l";
+        }
+        if (token.endsWith("ns")) {
+            return token.substring(0, token.length() - 2) + "m";
+        }
+        if (token.endsWith("res") || token.endsWith("zes") || token.endsWith("ses")) {
+            return token.substring(0, token.length() - 2);
+        }
+        if (token.endsWith("ss") || token.endsWith("us") || token.endsWith("is")) {
+            return token;
+        }
+        return token.substring(0, token.length() - 1);
+    }
+}
@@ -0,0 +1,400 @@
+package br.com.ai.connector.adapter.out.retrieval;
+
+import br.com.ai.connector.application.port.out.ContextRetrievalPort;
+import br.com.ai.connector.application.port.out.EmbeddingPort;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@ApplicationScoped
+public class VectorContextIndex implements ContextRetrievalPort {
+
+    private static final Logger LOG = Logger.getLogger(VectorContextIndex.class);
+    private static final int SNAPSHOT_MAGIC = 0x4C435649;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final long HYPERPLANE_SEED = 0x5EED_C0DEL;
+
+    @Inject
+    EmbeddingPort embeddingPort;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "context.retrieval.vector.hash-tables")
+    int hashTables;
+
+    @ConfigProperty(name = "context.retrieval.vector.hash-bits")
+    int hashBits;
+
+    @ConfigProperty(name = "context.retrieval.vector.min-score")
+    double minScore;
+
+    @ConfigProperty(name = "context.retrieval.max-per-partition")
+    int maxPerPartition;
+
+    @ConfigProperty(name = "context.retrieval.vector.index-file")
+    String indexFile;
+
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private float[][][] hyperplanes;
+    private Timer searchTimer;
+
+    @PostConstruct
+    void init() {
+        hyperplanes = hyperplanes(embeddingPort.dimensions());
+        searchTimer = Timer.builder("connector.context.retrieval.duration")
+                .tag("engine", "vector")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("connector.context.retrieval.snippets", partitions,
+                        map -> map.values().stream().mapToInt(Partition::size).sum())
+                .tag("engine", "vector")
+                .register(meterRegistry);
+        load();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        snapshot();
+    }
+
+    void snapshot() {
+        if (indexFile == null || indexFile.isBlank() || !dirty.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            persist(Path.of(indexFile));
+        } catch (IOException e) {
+            dirty.set(true);
+            LOG.errorf(e, "Falha ao gravar snapshot do indice vetorial em %s", indexFile);
+        }
+    }
+
+    @Override
+    public void index(String partition, List<String> snippets) {
+        if (snippets.isEmpty()) {
+            return;
+        }
+        Partition target = partitions.computeIfAbsent(partition, key -> new Partition());
+        for (String snippet : snippets) {
+            if (snippet != null && !snippet.isBlank() && !target.contains(snippet)) {
+                float[] vector = embeddingPort.embed(snippet);
+                if (target.add(snippet, vector, signatures(vector), maxPerPartition)) {
+                    dirty.set(true);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void remove(String partition, List<String> snippets) {
+        Partition target = partitions.get(partition);
+        if (target != null && target.removeAll(snippets)) {
+            dirty.set(true);
+        }
+    }
+
+    @Override
+    public void replace(String partition, List<String> snippets) {
+        Partition previous = partitions.get(partition);
+        Partition rebuilt = new Partition();
+        for (String snippet : snippets) {
+            if (snippet != null && !snippet.isBlank() && !rebuilt.contains(snippet)) {
+                float[] vector = previous == null ? null : previous.vector(snippet);
+                if (vector == null) {
+                    vector = embeddingPort.embed(snippet);
+                }
+                rebuilt.add(snippet, vector, signatures(vector), maxPerPartition);
+            }
+        }
+        partitions.put(partition, rebuilt);
+        dirty.set(true);
+    }
+
+    @Override
+    public List<String> search(String partition, String query, int limit) {
+        Partition target = partitions.get(partition);
+        if (target == null || limit <= 0 || query == null || query.isBlank()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        try {
+            float[] vector = embeddingPort.embed(query);
+            return target.search(vector, signatures(vector), hashBits, limit, minScore);
+        } finally {
+            searchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private float[][][] hyperplanes(int dimensions) {
+        Random random = new Random(HYPERPLANE_SEED);
+        float[][][] planes = new float[hashTables][hashBits][dimensions];
+        for (float[][] table : planes) {
+            for (float[] plane : table) {
+                for (int d = 0; d < dimensions; d++) {
+                    plane[d] = (float) random.nextGaussian();
+                }
+            }
+        }
+        return planes;
+    }
+
+    private int[] signatures(float[] vector) {
+        int[] signatures = new int[hashTables];
+        for (int t = 0; t < hashTables; t++) {
+            int signature = 0;
+            for (int b = 0; b < hashBits; b++) {
+                if (dot(hyperplanes[t][b], vector) >= 0) {
+                    signature |= 1 << b;
+                }
+            }
+            signatures[t] = signature;
+        }
+        return signatures;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private void persist(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        int dimensions = embeddingPort.dimensions();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(dimensions);
+            Map<String, Partition> copy = new HashMap<>(partitions);
+            out.writeInt(copy.size());
+            for (Map.Entry<String, Partition> entry : copy.entrySet()) {
+                writeString(out, entry.getKey());
+                List<Entry> entries = entry.getValue().entries();
+                out.writeInt(entries.size());
+                for (Entry item : entries) {
+                    writeString(out, item.text());
+                    for (float value : item.vector()) {
+                        out.writeFloat(value);
+                    }
+                }
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void load() {
+        if (indexFile == null || indexFile.isBlank() || !Files.exists(Path.of(indexFile))) {
+            return;
+        }
+        int dimensions = embeddingPort.dimensions();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Path.of(indexFile))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION || in.readInt() != dimensions) {
+                LOG.warnf("Snapshot do indice vetorial %s incompativel; o indice sera reconstruido sob demanda", indexFile);
+                return;
+            }
+            int partitionCount = in.readInt();
+            int loaded = 0;
+            for (int p = 0; p < partitionCount; p++) {
+                Partition partition = partitions.computeIfAbsent(readString(in), key -> new Partition());
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    String text = readString(in);
+                    float[] vector = new float[dimensions];
+                    for (int d = 0; d < dimensions; d++) {
+                        vector[d] = in.readFloat();
+                    }
+                    partition.add(text, vector, signatures(vector), maxPerPartition);
+                    loaded++;
+                }
+            }
+            LOG.infof("Indice vetorial carregado de %s: %d particoes, %d trechos", indexFile, partitionCount, loaded);
+        } catch (IOException e) {
+            partitions.clear();
+            LOG.warnf(e, "Falha ao carregar snapshot do indice vetorial %s; o indice sera reconstruido sob demanda", indexFile);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Entry(String text, float[] vector, int[] signatures) {
+    }
+
+    private record Scored(Entry entry, float score) {
+    }
+
+    private static final class Partition {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+        private final List<Map<Integer, Set<Entry>>> buckets = new ArrayList<>();
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        boolean contains(String text) {
+            lock.readLock().lock();
+            try {
+                return entries.containsKey(text);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        float[] vector(String text) {
+            lock.readLock().lock();
+            try {
+                Entry entry = entries.get(text);
+                return entry == null ? null : entry.vector();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Entry> entries() {
+            lock.readLock().lock();
+            try {
+                return new ArrayList<>(entries.values());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        boolean add(String text, float[] vector, int[] signatures, int capacity) {
+            lock.writeLock().lock();
+            try {
+                if (entries.containsKey(text)) {
+                    return false;
+                }
+                while (buckets.size() < signatures.length) {
+                    buckets.add(new HashMap<>());
+                }
+                Entry entry = new Entry(text, vector, signatures);
+                entries.put(text, entry);
+                for (int t = 0; t < signatures.length; t++) {
+                    buckets.get(t).computeIfAbsent(signatures[t], key -> new HashSet<>()).add(entry);
+                }
+                while (entries.size() > capacity) {
+                    unlink(entries.values().iterator().next());
+                }
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean removeAll(List<String> texts) {
+            lock.writeLock().lock();
+            try {
+                boolean removed = false;
+                for (String text : texts) {
+                    Entry entry = entries.get(text);
+                    if (entry != null) {
+                        unlink(entry);
+                        removed = true;
+                    }
+                }
+                return removed;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void unlink(Entry entry) {
+            entries.remove(entry.text());
+            for (int t = 0; t < entry.signatures().length; t++) {
+                Set<Entry> bucket = buckets.get(t).get(entry.signatures()[t]);
+                if (bucket != null) {
+                    bucket.remove(entry);
+                    if (bucket.isEmpty()) {
+                        buckets.get(t).remove(entry.signatures()[t]);
+                    }
+                }
+            }
+        }
+
+        List<String> search(float[] query, int[] signatures, int bits, int limit, double minScore) {
+            lock.readLock().lock();
+            try {
+                Set<Entry> candidates = new HashSet<>();
+                for (int t = 0; t < Math.min(signatures.length, buckets.size()); t++) {
+                    Map<Integer, Set<Entry>> table = buckets.get(t);
+                    addBucket(candidates, table, signatures[t]);
+                    for (int bit = 0; bit < bits; bit++) {
+                        addBucket(candidates, table, signatures[t] ^ (1 << bit));
+                    }
+                }
+                if (candidates.size() < limit) {
+                    candidates.addAll(entries.values());
+                }
+                return candidates.stream()
+                        .map(entry -> new Scored(entry, dot(entry.vector(), query)))
+                        .filter(scored -> scored.score() >= minScore)
+                        .sorted(Comparator.comparingDouble(Scored::score).reversed())
+                        .limit(limit)
+                        .map(scored -> scored.entry().text())
+                        .toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static void addBucket(Set<Entry> candidates, Map<Integer, Set<Entry>> table, int signature) {
+            Set<Entry> bucket = table.get(signature);
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+    }
+}
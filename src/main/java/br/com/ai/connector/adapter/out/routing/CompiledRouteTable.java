@@ -0,0 +1,94 @@
+package br.com.ai.connector.adapter.out.routing;
+
+import br.com.ai.connector.dto.RouteConfig;
+import br.com.ai.connector.dto.RouteRule;
+import br.com.ai.connector.dto.RouteTableVersion;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+final class CompiledRouteTable {
+
+    static final String WILDCARD = "*";
+
+    private final Map<String, Map<String, Optional<RouteConfig>>> exactRoutes;
+    private final Map<String, Optional<RouteConfig>> wildcardRoutes;
+    private final RouteTableVersion version;
+    private final Instant loadedAt;
+    private final int size;
+
+    private CompiledRouteTable(
+            Map<String, Map<String, Optional<RouteConfig>>> exactRoutes,
+            Map<String, Optional<RouteConfig>> wildcardRoutes,
+            RouteTableVersion version,
+            Instant loadedAt,
+            int size
+    ) {
+        this.exactRoutes = exactRoutes;
+        this.wildcardRoutes = wildcardRoutes;
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.size = size;
+    }
+
+    static CompiledRouteTable compile(List<RouteRule> rules, RouteTableVersion version, Instant loadedAt) {
+        List<RouteRule> ordered = rules.stream()
+                .sorted(Comparator.comparingInt(RouteRule::priority)
+                        .thenComparingLong(rule -> rule.config().routeId()))
+                .toList();
+
+        Map<String, Map<String, Optional<RouteConfig>>> exact = new HashMap<>();
+        Map<String, Optional<RouteConfig>> wildcard = new HashMap<>();
+        for (RouteRule rule : ordered) {
+            if (rule.dataType() == null || rule.dataCharacteristic() == null) {
+                continue;
+            }
+            if (WILDCARD.equals(rule.dataCharacteristic())) {
+                wildcard.putIfAbsent(rule.dataType(), Optional.of(rule.config()));
+            }
+            exact.computeIfAbsent(rule.dataType(), key -> new HashMap<>())
+                    .putIfAbsent(rule.dataCharacteristic(), Optional.of(rule.config()));
+        }
+
+        Map<String, Map<String, Optional<RouteConfig>>> frozen = new HashMap<>();
+        exact.forEach((dataType, byCharacteristic) -> frozen.put(dataType, Map.copyOf(byCharacteristic)));
+        return new CompiledRouteTable(Map.copyOf(frozen), Map.copyOf(wildcard), version, loadedAt, ordered.size());
+    }
+
+    Optional<RouteConfig> resolve(String dataType, String characteristic) {
+        if (dataType == null) {
+            return Optional.empty();
+        }
+        if (characteristic != null) {
+            Map<String, Optional<RouteConfig>> byCharacteristic = exactRoutes.get(dataType);
+            if (byCharacteristic != null) {
+                Optional<RouteConfig> route = byCharacteristic.get(characteristic);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        return wildcardRoutes.getOrDefault(dataType, Optional.empty());
+    }
+
+    boolean isOlderThan(Duration maxAge, Instant now) {
+        return maxAge != null && !maxAge.isZero() && loadedAt.plus(maxAge).isBefore(now);
+    }
+
+    RouteTableVersion version() {
+        return version;
+    }
+
+    Instant loadedAt() {
+        return loadedAt;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,131 @@
+package br.com.ai.connector.adapter.out.routing;
+
+import br.com.ai.connector.adapter.out.cache.ContextSnippetCache;
+import br.com.ai.connector.adapter.out.cache.ContextSnippetCache.Section;
+import br.com.ai.connector.adapter.out.oracle.OracleLlmConfigAdapter;
+import br.com.ai.connector.application.port.out.RouteConfigPort;
+import br.com.ai.connector.dto.RouteConfig;
+import br.com.ai.connector.dto.RouteTableVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Alternative
+@Priority(1)
+@ApplicationScoped
+public class InMemoryRouteConfigAdapter implements RouteConfigPort {
+
+    private static final Logger LOG = Logger.getLogger(InMemoryRouteConfigAdapter.class);
+
+    @Inject
+    OracleLlmConfigAdapter oracleAdapter;
+
+    @Inject
+    ContextSnippetCache snippetCache;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "route.table.enabled")
+    boolean enabled;
+
+    @ConfigProperty(name = "route.table.max-age")
+    Duration maxAge;
+
+    private final AtomicReference<CompiledRouteTable> table = new AtomicReference<>();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter reloadFailures;
+    private Timer reloadTimer;
+
+    @PostConstruct
+    void init() {
+        hits = meterRegistry.counter("connector.route.table.lookups", "result", "hit");
+        misses = meterRegistry.counter("connector.route.table.lookups", "result", "miss");
+        reloadFailures = meterRegistry.counter("connector.route.table.reload.failures");
+        reloadTimer = meterRegistry.timer("connector.route.table.reloads");
+        Gauge.builder("connector.route.table.size", table, ref -> ref.get() == null ? 0 : ref.get().size())
+                .register(meterRegistry);
+        Gauge.builder("connector.route.table.age.seconds", table, ref -> ref.get() == null
+                        ? 0
+                        : Duration.between(ref.get().loadedAt(), Instant.now()).toSeconds())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<RouteConfig> resolveRoute(String dataType, String characteristic) {
+        if (!enabled) {
+            return oracleAdapter.resolveRoute(dataType, characteristic);
+        }
+        Optional<RouteConfig> route = currentTable().resolve(dataType, characteristic);
+        (route.isPresent() ? hits : misses).increment();
+        return route;
+    }
+
+    @Override
+    public List<String> loadContextSnippets(long routeId, int limit) {
+        return snippetCache.get(Section.ROUTE, String.valueOf(routeId), null, limit,
+                effectiveLimit -> oracleAdapter.loadContextSnippets(routeId, effectiveLimit));
+    }
+
+    @Scheduled(every = "{route.table.check-every}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refreshIfChanged() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            RouteTableVersion version = oracleAdapter.loadRouteTableVersion();
+            CompiledRouteTable current = table.get();
+            if (current == null
+                    || !Objects.equals(current.version(), version)
+                    || current.isOlderThan(maxAge, Instant.now())) {
+                reload(version);
+            }
+        } catch (RuntimeException e) {
+            reloadFailures.increment();
+            LOG.warn("Falha ao atualizar tabela de rotas; mantendo versao atual em memoria", e);
+        }
+    }
+
+    private CompiledRouteTable currentTable() {
+        CompiledRouteTable current = table.get();
+        if (current != null) {
+            return current;
+        }
+        reloadLock.lock();
+        try {
+            current = table.get();
+            return current != null ? current : reload(oracleAdapter.loadRouteTableVersion());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private CompiledRouteTable reload(RouteTableVersion version) {
+        long start = System.nanoTime();
+        CompiledRouteTable compiled = CompiledRouteTable.compile(oracleAdapter.loadEnabledRoutes(), version, Instant.now());
+        table.set(compiled);
+        reloadTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        LOG.infof("Tabela de rotas carregada: %d rotas habilitadas", compiled.size());
+        return compiled;
+    }
+}
@@ -0,0 +1,13 @@
+package br.com.ai.connector.application.port.out;
+
+import java.util.List;
+
+public interface ContextRetrievalPort {
+    void index(String partition, List<String> snippets);
+
+    void remove(String partition, List<String> snippets);
+
+    void replace(String partition, List<String> snippets);
+
+    List<String> search(String partition, String query, int limit);
+}
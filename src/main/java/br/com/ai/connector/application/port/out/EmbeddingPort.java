@@ -0,0 +1,7 @@
+package br.com.ai.connector.application.port.out;
+
+public interface EmbeddingPort {
+    int dimensions();
+
+    float[] embed(String text);
+}
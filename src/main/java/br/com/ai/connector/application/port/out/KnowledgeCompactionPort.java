@@ -0,0 +1,14 @@
+package br.com.ai.connector.application.port.out;
+
+import br.com.ai.connector.dto.ContextCompactionTarget;
+import br.com.ai.connector.dto.ContextSnippet;
+
+import java.util.List;
+
+public interface KnowledgeCompactionPort {
+    List<ContextCompactionTarget> findCompactionTargets(String scope, int keepLatest, int minCompactableRows, int limit);
+
+    List<ContextSnippet> loadCompactableContext(ContextCompactionTarget target, int keepLatest, int maxRows);
+
+    boolean replaceWithSummary(ContextCompactionTarget target, String summary, List<Long> supersededIds);
+}
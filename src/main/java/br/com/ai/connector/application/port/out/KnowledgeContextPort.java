@@ -1,13 +1,24 @@
 package br.com.ai.connector.application.port.out;
 
+import br.com.ai.connector.dto.ContextBundle;
+
 import java.util.List;
 
 public interface KnowledgeContextPort {
+    ContextBundle loadContextBundle(
+            long routeId,
+            String moduleKey,
+            String profileId,
+            int routeLimit,
+            int moduleLimit,
+            int profileLimit
+    );
+
     List<String> loadModuleContext(long routeId, String moduleKey, int limit);
 
     List<String> loadProfileContext(String profileId, String moduleKey, int limit);
 
-    void saveModuleContext(long routeId, String moduleKey, String contextText, String sourceType);
+    boolean saveModuleContext(long routeId, String moduleKey, String contextText, String contentHash, String sourceType);
 
-    void saveProfileContext(String profileId, String moduleKey, String contextText, String sourceType);
+    boolean saveProfileContext(String profileId, String moduleKey, String contextText, String contentHash, String sourceType);
 }
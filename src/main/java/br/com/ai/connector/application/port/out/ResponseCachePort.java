@@ -0,0 +1,10 @@
+package br.com.ai.connector.application.port.out;
+
+import java.time.Duration;
+import java.util.Optional;
+
+public interface ResponseCachePort {
+    Optional<String> find(String cacheKey, String routeKey);
+
+    void store(String cacheKey, String routeKey, String provider, String model, String output, Duration ttl);
+}
@@ -1,23 +1,29 @@
 package br.com.ai.connector.application.port.out;
 
+import br.com.ai.connector.dto.TrainingMessage;
+import br.com.ai.connector.dto.TrainingOutcome;
 import br.com.ai.connector.dto.TrainingQueueItem;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 public interface TrainingQueuePort {
-    List<TrainingQueueItem> fetchPendingTrainingItems(int batchSize);
+    List<TrainingQueueItem> claimPendingTrainingItems(int batchSize);
+
+    void renewTrainingLeases(List<Long> ids);
+
+    int releaseExpiredTrainingLeases();
 
     void markTrainingDone(long id);
 
     void markTrainingFailed(long id, String reason);
 
-    void enqueueTrainingItem(
-            String dataType,
-            String dataCharacteristic,
-            String content,
-            String routeKey,
-            String moduleKey,
-            String profileId,
-            String sourceType
-    );
+    void scheduleTrainingRetry(long id, String reason, Instant nextRunAt);
+
+    void markTrainingDead(long id, String reason);
+
+    void recordTrainingOutcomes(List<TrainingOutcome> outcomes);
+
+    int enqueueTrainingItems(Map<String, TrainingMessage> messagesByContentHash);
 }
@@ -0,0 +1,29 @@
+package br.com.ai.connector.application.usecase;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+final class ContentFingerprint {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private ContentFingerprint() {
+    }
+
+    static String of(String content, String... scope) {
+        LengthPrefixedDigest digest = new LengthPrefixedDigest();
+        for (String part : scope) {
+            digest.add(part);
+        }
+        return digest.add(normalize(content)).hex();
+    }
+
+    static String normalize(String content) {
+        if (content == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(content, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
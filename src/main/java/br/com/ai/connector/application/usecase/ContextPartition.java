@@ -0,0 +1,33 @@
+package br.com.ai.connector.application.usecase;
+
+import br.com.ai.connector.dto.ContextCompactionTarget;
+
+final class ContextPartition {
+
+    private static final String ROUTE_SCOPE = "ROUTE";
+    private static final String GENERAL_MODULE = "GENERAL";
+
+    private ContextPartition() {
+    }
+
+    static String route(long routeId) {
+        return ROUTE_SCOPE + "|" + routeId;
+    }
+
+    static String module(long routeId, String moduleKey) {
+        return key(ContextCompactionTarget.MODULE, String.valueOf(routeId), moduleKey);
+    }
+
+    static String profile(String profileId, String moduleKey) {
+        return key(ContextCompactionTarget.PROFILE, profileId, moduleKey);
+    }
+
+    static String of(ContextCompactionTarget target) {
+        return key(target.scope(), target.ownerId(), target.moduleKey());
+    }
+
+    private static String key(String scope, String ownerId, String moduleKey) {
+        String effectiveModule = moduleKey == null || moduleKey.isBlank() ? GENERAL_MODULE : moduleKey;
+        return scope + "|" + ownerId + "|" + effectiveModule;
+    }
+}
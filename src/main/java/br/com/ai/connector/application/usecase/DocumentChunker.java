@@ -0,0 +1,103 @@
+package br.com.ai.connector.application.usecase;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+final class DocumentChunker {
+
+    record Chunk(int index, String text) {
+    }
+
+    private final int maxChars;
+    private final int overlapChars;
+
+    DocumentChunker(int chunkTokens, int overlapTokens, int charsPerToken) {
+        this.maxChars = Math.max(2, chunkTokens * charsPerToken);
+        this.overlapChars = Math.max(0, Math.min(overlapTokens * charsPerToken, maxChars / 2 - 1));
+    }
+
+    Iterator<Chunk> chunks(Reader reader) {
+        return new ChunkIterator(reader);
+    }
+
+    private final class ChunkIterator implements Iterator<Chunk> {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder window = new StringBuilder();
+        private int carried;
+        private int nextIndex;
+        private boolean eof;
+
+        private ChunkIterator(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return window.length() > carried;
+        }
+
+        @Override
+        public Chunk next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int cut = eof && window.length() <= maxChars ? window.length() : boundary();
+            Chunk chunk = new Chunk(nextIndex++, window.substring(0, cut));
+            if (eof && cut == window.length()) {
+                window.setLength(0);
+                carried = 0;
+                return chunk;
+            }
+            int start = overlapStart(cut);
+            window.delete(0, start);
+            carried = cut - start;
+            return chunk;
+        }
+
+        private void fill() {
+            try {
+                while (!eof && window.length() < maxChars) {
+                    int read = reader.read(buffer, 0, Math.min(buffer.length, maxChars - window.length()));
+                    if (read < 0) {
+                        eof = true;
+                    } else {
+                        window.append(buffer, 0, read);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao ler documento para divisao em trechos", e);
+            }
+        }
+
+        private int boundary() {
+            int min = maxChars / 2;
+            int paragraph = window.lastIndexOf("\n\n", maxChars - 2);
+            if (paragraph >= min) {
+                return paragraph + 2;
+            }
+            int line = window.lastIndexOf("\n", maxChars - 1);
+            if (line >= min) {
+                return line + 1;
+            }
+            int space = window.lastIndexOf(" ", maxChars - 1);
+            if (space >= min) {
+                return space + 1;
+            }
+            return maxChars;
+        }
+
+        private int overlapStart(int cut) {
+            int start = cut - overlapChars;
+            if (start <= 0 || overlapChars == 0) {
+                return cut;
+            }
+            int space = window.indexOf(" ", start);
+            return space >= 0 && space + 1 < cut ? space + 1 : start;
+        }
+    }
+}
@@ -1,27 +1,85 @@
 package br.com.ai.connector.application.usecase;
 
+import br.com.ai.connector.application.port.out.ContextRetrievalPort;
 import br.com.ai.connector.application.port.out.EventPublisherPort;
 import br.com.ai.connector.application.port.out.KnowledgeContextPort;
 import br.com.ai.connector.application.port.out.LlmProviderCatalogPort;
 import br.com.ai.connector.application.port.out.RequestLogPort;
+import br.com.ai.connector.application.port.out.ResponseCachePort;
 import br.com.ai.connector.application.port.out.RouteConfigPort;
+import br.com.ai.connector.application.usecase.ParallelStages.Stage;
 import br.com.ai.connector.dto.ConnectorEvent;
+import br.com.ai.connector.dto.ContextBundle;
+import br.com.ai.connector.dto.FileAttachment;
 import br.com.ai.connector.dto.InferenceRequest;
 import br.com.ai.connector.dto.InferenceResponse;
+import br.com.ai.connector.dto.PromptTokenReport;
 import br.com.ai.connector.dto.ProviderPayload;
 import br.com.ai.connector.dto.RouteConfig;
 import br.com.ai.connector.provider.LlmProvider;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @ApplicationScoped
 public class InferenceUseCase {
 
+    private static final Logger LOG = Logger.getLogger(InferenceUseCase.class);
+    private static final int CONTEXT_LIMIT = 8;
+    private static final String INLINE_FILE_PROMPT = """
+            Analise o arquivo enviado (base64) junto com o prompt.
+            Prompt: %s
+            FileBase64:\s""";
+    private static final String MAP_PROMPT = """
+            Voce esta analisando o trecho %d de um documento maior.
+            Extraia deste trecho apenas o que for relevante para a solicitacao abaixo, de forma objetiva.
+            Se nada for relevante, responda "Sem informacoes relevantes".
+
+            Solicitacao: %s
+
+            Trecho:
+            %s
+            """;
+    private static final String REDUCE_HEADER = "\n\nResultados parciais extraidos de cada trecho do documento:\n";
+    private static final String REDUCE_FINAL_INSTRUCTION =
+            "\nCombine os resultados parciais em uma unica resposta coerente para a pergunta do usuario.";
+    private static final String REDUCE_GROUP_INSTRUCTION =
+            "\nCombine os resultados parciais em um unico resultado parcial, preservando o que for relevante para a pergunta do usuario.";
+    private static final int MIN_PARTIAL_TOKENS = 64;
+    private static final ExecutorService BLOCKING_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final Map<String, Long> hydratedAt = new ConcurrentHashMap<>();
+
     @Inject
     RouteConfigPort routeConfigPort;
 
@@ -37,6 +95,75 @@ public class InferenceUseCase {
     @Inject
     KnowledgeContextPort knowledgeContextPort;
 
+    @ConfigProperty(name = "context.load.strategy")
+    String contextLoadStrategy;
+
+    @ConfigProperty(name = "context.load.stage-timeout")
+    Duration contextStageTimeout;
+
+    @Inject
+    ResponseCachePort responseCachePort;
+
+    @ConfigProperty(name = "response-cache.enabled")
+    boolean responseCacheEnabled;
+
+    @ConfigProperty(name = "response-cache.max-temperature")
+    double responseCacheMaxTemperature;
+
+    @ConfigProperty(name = "inference.coalescing.enabled")
+    boolean coalescingEnabled;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "document.map-reduce.chunk-tokens")
+    int documentChunkTokens;
+
+    @ConfigProperty(name = "document.map-reduce.overlap-tokens")
+    int documentOverlapTokens;
+
+    @ConfigProperty(name = "document.map-reduce.chars-per-token")
+    int documentCharsPerToken;
+
+    @ConfigProperty(name = "document.map-reduce.concurrency")
+    int documentConcurrency;
+
+    @ConfigProperty(name = "document.map-reduce.chunk-max-tokens")
+    int documentChunkMaxTokens;
+
+    @Inject
+    ContextRetrievalPort contextRetrievalPort;
+
+    @ConfigProperty(name = "context.retrieval.engine")
+    String contextRetrievalEngine;
+
+    @ConfigProperty(name = "context.retrieval.max-per-partition")
+    int contextRetrievalHydrateLimit;
+
+    @ConfigProperty(name = "context.retrieval.rehydrate-every")
+    Duration contextRetrievalRehydrateEvery;
+
+    @ConfigProperty(name = "prompt.budget.enabled")
+    boolean promptBudgetEnabled;
+
+    @ConfigProperty(name = "prompt.budget.context-max-tokens")
+    int promptContextMaxTokens;
+
+    @ConfigProperty(name = "prompt.budget.snippet-max-tokens")
+    int promptSnippetMaxTokens;
+
+    @ConfigProperty(name = "prompt.budget.default-output-tokens")
+    int promptDefaultOutputTokens;
+
+    @ConfigProperty(name = "prompt.budget.default-context-window")
+    int promptDefaultContextWindow;
+
+    @ConfigProperty(name = "prompt.budget.context-windows")
+    List<String> promptContextWindows;
+
+    @ConfigProperty(name = "prompt.cache.enabled")
+    boolean promptCacheEnabled;
+
     public InferenceResponse ask(
             String dataType,
             String dataCharacteristic,
@@ -44,38 +171,45 @@ public class InferenceUseCase {
             String profileId,
             InferenceRequest request
     ) {
-        RouteConfig route = resolveRoute(dataType, dataCharacteristic);
-        LlmProvider provider = providerCatalog.require(route.provider());
-        String model = route.effectiveModel(provider.defaultModel());
-        String systemPrompt = Objects.requireNonNullElse(route.systemPrompt(), "Voce e um assistente corporativo.");
-        String compiledPrompt = compilePrompt(
-                request.prompt(),
-                routeConfigPort.loadContextSnippets(route.routeId(), 8),
-                knowledgeContextPort.loadModuleContext(route.routeId(), moduleKey, 8),
-                knowledgeContextPort.loadProfileContext(profileId, moduleKey, 8)
-        );
+        PreparedInference prepared = prepare(dataType, dataCharacteristic, moduleKey, profileId, request, null);
+        if (prepared.cachedOutput() != null) {
+            return complete(prepared, request, prepared.cachedOutput(), true);
+        }
+        String output = isCoalesced(prepared)
+                ? coalesce(prepared, () -> Uni.createFrom().item(() -> prepared.provider().invoke(prepared.payload())))
+                        .await().indefinitely()
+                : prepared.provider().invoke(prepared.payload());
+        return complete(prepared, request, output, false);
+    }
 
-        ProviderPayload payload = new ProviderPayload(
-                provider.name(),
-                model,
-                systemPrompt,
-                compiledPrompt,
-                route.temperature(),
-                route.maxTokens()
-        );
+    public Uni<InferenceResponse> askAsync(
+            String dataType,
+            String dataCharacteristic,
+            String moduleKey,
+            String profileId,
+            InferenceRequest request
+    ) {
+        return askAsync(dataType, dataCharacteristic, moduleKey, profileId, request, null);
+    }
 
-        String output = provider.invoke(payload);
-        requestLogPort.saveRequestLog(route.routeKey(), provider.name(), model, shrink(request.prompt()), shrink(output));
-        eventPublisher.publish(new ConnectorEvent(
-                "INFERENCE_COMPLETED",
-                route.routeKey(),
-                provider.name(),
-                model,
-                "SUCCESS",
-                "Inference finalizada.",
-                Instant.now()
-        ));
-        return new InferenceResponse(provider.name(), model, output, route.routeKey());
+    public Uni<InferenceResponse> askAsync(
+            String dataType,
+            String dataCharacteristic,
+            String moduleKey,
+            String profileId,
+            InferenceRequest request,
+            FileAttachment attachment
+    ) {
+        return Uni.createFrom().item(() -> prepare(dataType, dataCharacteristic, moduleKey, profileId, request, attachment))
+                .runSubscriptionOn(BLOCKING_EXECUTOR)
+                .onItem().transformToUni(prepared -> {
+                    if (prepared.cachedOutput() != null) {
+                        return Uni.createFrom().item(complete(prepared, request, prepared.cachedOutput(), true));
+                    }
+                    return invoke(prepared, request, attachment)
+                            .emitOn(BLOCKING_EXECUTOR)
+                            .onItem().transform(output -> complete(prepared, request, output, false));
+                });
     }
 
     public Multi<String> askStream(
@@ -85,110 +219,457 @@ public class InferenceUseCase {
             String profileId,
             InferenceRequest request
     ) {
-        RouteConfig route = resolveRoute(dataType, dataCharacteristic);
+        return Uni.createFrom().item(() -> prepare(dataType, dataCharacteristic, moduleKey, profileId, request, null))
+                .runSubscriptionOn(BLOCKING_EXECUTOR)
+                .onItem().transformToMulti(prepared -> prepared.cachedOutput() != null
+                        ? Multi.createFrom().item(prepared.cachedOutput())
+                        : coalesceStream(prepared));
+    }
+
+    private PreparedInference prepare(
+            String dataType,
+            String dataCharacteristic,
+            String moduleKey,
+            String profileId,
+            InferenceRequest request,
+            FileAttachment attachment
+    ) {
+        RouteConfig route = resolveRoute(routeConfigPort, dataType, dataCharacteristic);
         LlmProvider provider = providerCatalog.require(route.provider());
         String model = route.effectiveModel(provider.defaultModel());
         String systemPrompt = Objects.requireNonNullElse(route.systemPrompt(), "Voce e um assistente corporativo.");
-        String compiledPrompt = compilePrompt(
-                request.prompt(),
-                routeConfigPort.loadContextSnippets(route.routeId(), 8),
-                knowledgeContextPort.loadModuleContext(route.routeId(), moduleKey, 8),
-                knowledgeContextPort.loadProfileContext(profileId, moduleKey, 8)
-        );
+        FileAttachment inlineAttachment = attachment == null || route.mapReduceDocuments() ? null : attachment;
+        String prompt = inlineAttachment == null ? request.prompt() : INLINE_FILE_PROMPT.formatted(request.prompt());
+        PromptCompiler.CompiledPrompt compiledPrompt = compilePrompt(provider, model, route, systemPrompt, prompt,
+                rankContext(route, moduleKey, profileId, request.prompt(), loadContext(route, moduleKey, profileId)));
 
         ProviderPayload payload = new ProviderPayload(
                 provider.name(),
                 model,
                 systemPrompt,
-                compiledPrompt,
+                compiledPrompt.text(),
                 route.temperature(),
-                route.maxTokens()
+                route.maxTokens(),
+                inlineAttachment,
+                compiledPrompt.stablePrefix(),
+                route.routeKey()
         );
-        return provider.stream(payload);
+        String fingerprint = attachment == null && (responseCacheEnabled || coalescingEnabled)
+                ? PayloadFingerprint.of(payload)
+                : null;
+        boolean cacheable = fingerprint != null && isResponseCacheable(route, payload);
+        String cachedOutput = cacheable ? responseCachePort.find(fingerprint, route.routeKey()).orElse(null) : null;
+        return new PreparedInference(route, provider, payload, fingerprint, cacheable, cachedOutput, compiledPrompt.report());
     }
 
-    public void processTrainingItem(
-            String dataType,
-            String characteristic,
-            String moduleKey,
-            String profileId,
-            String content,
-            String sourceType
+    private boolean isCoalesced(PreparedInference prepared) {
+        return coalescingEnabled && prepared.fingerprint() != null;
+    }
+
+    private Uni<String> coalesce(PreparedInference prepared, Supplier<Uni<String>> upstream) {
+        if (!isCoalesced(prepared)) {
+            return upstream.get();
+        }
+        return singleFlight.call(prepared.fingerprint(), upstream, () -> countCoalesced(prepared, "call"));
+    }
+
+    private Multi<String> coalesceStream(PreparedInference prepared) {
+        if (!isCoalesced(prepared)) {
+            return prepared.provider().stream(prepared.payload());
+        }
+        return singleFlight.stream(prepared.fingerprint(), () -> prepared.provider().stream(prepared.payload()),
+                () -> countCoalesced(prepared, "stream"));
+    }
+
+    private void countCoalesced(PreparedInference prepared, String mode) {
+        meterRegistry.counter("connector.inference.coalesced",
+                "route", prepared.route().routeKey(), "mode", mode).increment();
+    }
+
+    private boolean isResponseCacheable(RouteConfig route, ProviderPayload payload) {
+        return responseCacheEnabled
+                && route.responseCacheEnabled()
+                && (payload.temperature() == null || payload.temperature() <= responseCacheMaxTemperature);
+    }
+
+    private Uni<String> invoke(PreparedInference prepared, InferenceRequest request, FileAttachment attachment) {
+        if (attachment != null && prepared.route().mapReduceDocuments()) {
+            return mapReduce(prepared, request.prompt(), attachment);
+        }
+        return coalesce(prepared, () -> prepared.provider().invokeAsync(prepared.payload()));
+    }
+
+    private Uni<String> mapReduce(PreparedInference prepared, String question, FileAttachment attachment) {
+        LlmProvider provider = prepared.provider();
+        ProviderPayload base = prepared.payload();
+        DocumentChunker chunker = new DocumentChunker(documentChunkTokens, documentOverlapTokens, documentCharsPerToken);
+        Timer chunkTimer = Timer.builder("connector.document.chunk.duration")
+                .tag("provider", provider.name())
+                .tag("model", base.model())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Timer totalTimer = Timer.builder("connector.document.map.reduce.duration")
+                .tag("provider", provider.name())
+                .tag("model", base.model())
+                .register(meterRegistry);
+        DistributionSummary chunkCount = DistributionSummary.builder("connector.document.chunks")
+                .tag("provider", provider.name())
+                .register(meterRegistry);
+        long start = System.nanoTime();
+
+        return Multi.createFrom().resource(
+                        () -> openDocument(attachment),
+                        reader -> Multi.createFrom().iterable(() -> chunker.chunks(reader)))
+                .withFinalizer(InferenceUseCase::closeQuietly)
+                .onItem().transformToUni(chunk -> mapChunk(provider, base, question, chunk, chunkTimer))
+                .merge(documentConcurrency)
+                .collect().asList()
+                .onItem().transformToUni(partials -> {
+                    List<PartialResult> ordered = partials.stream().sorted(Comparator.comparingInt(PartialResult::index)).toList();
+                    chunkCount.record(ordered.size());
+                    LOG.infof("Documento da rota %s dividido em %d trechos; tempos por trecho: %s",
+                            prepared.route().routeKey(), ordered.size(), ordered.stream()
+                                    .map(p -> (p.index() + 1) + "=" + p.elapsed().toMillis() + "ms")
+                                    .collect(Collectors.joining(", ")));
+                    return reduce(provider, base, ordered);
+                })
+                .onTermination().invoke(() -> totalTimer.record(Duration.ofNanos(System.nanoTime() - start)));
+    }
+
+    private Uni<PartialResult> mapChunk(
+            LlmProvider provider,
+            ProviderPayload base,
+            String question,
+            DocumentChunker.Chunk chunk,
+            Timer chunkTimer
     ) {
-        RouteConfig route = resolveRoute(dataType, characteristic);
-        LlmProvider provider = providerCatalog.require(route.provider());
-        String model = route.effectiveModel(provider.defaultModel());
-        String system = """
-                Voce esta recebendo atualizacao de conhecimento de dominio.
-                Extraia regras, conceitos e fatos uteis para respostas futuras.
-                """;
-        String userPrompt = "Conteudo de atualizacao:\n" + content;
-        ProviderPayload payload = new ProviderPayload(provider.name(), model, system, userPrompt, 0.1, 800);
-        String output = provider.invoke(payload);
-        String effectiveSource = isBlank(sourceType) ? "JOB" : sourceType;
-        String effectiveModule = isBlank(moduleKey) ? "GENERAL" : moduleKey;
-
-        knowledgeContextPort.saveModuleContext(route.routeId(), effectiveModule, output, effectiveSource);
-        if (!isBlank(profileId)) {
-            knowledgeContextPort.saveProfileContext(profileId, effectiveModule, output, effectiveSource);
-        }
-
-        requestLogPort.saveRequestLog(route.routeKey(), provider.name(), model, shrink(userPrompt), shrink(output));
+        ProviderPayload payload = new ProviderPayload(
+                base.provider(),
+                base.model(),
+                base.systemPrompt(),
+                MAP_PROMPT.formatted(chunk.index() + 1, question, chunk.text()),
+                base.temperature(),
+                documentChunkMaxTokens,
+                null,
+                null,
+                base.routeKey()
+        );
+        long start = System.nanoTime();
+        return provider.invokeAsync(payload)
+                .emitOn(BLOCKING_EXECUTOR)
+                .onItem().transform(output -> {
+                    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                    chunkTimer.record(elapsed);
+                    return new PartialResult(chunk.index(), output, elapsed);
+                });
+    }
+
+    private Uni<String> reduce(LlmProvider provider, ProviderPayload base, List<PartialResult> partials) {
+        int budget = reduceBudget(provider, base);
+        List<PartialResult> bounded = budget == Integer.MAX_VALUE
+                ? partials
+                : partials.stream().map(partial -> boundPartial(provider, partial, Math.max(MIN_PARTIAL_TOKENS, budget / 2))).toList();
+        List<List<PartialResult>> groups = groupWithinBudget(provider, bounded, budget);
+        if (groups.size() <= 1) {
+            return provider.invokeAsync(reducePayload(base, bounded, true));
+        }
+        LOG.debugf("Resultados parciais excedem %d tokens; reduzindo %d trechos em %d grupos", budget, bounded.size(), groups.size());
+        return Multi.createFrom().range(0, groups.size())
+                .onItem().transformToUni(index -> {
+                    List<PartialResult> group = groups.get(index);
+                    if (group.size() == 1) {
+                        return Uni.createFrom().item(new PartialResult(index, group.get(0).output(), Duration.ZERO));
+                    }
+                    return provider.invokeAsync(reducePayload(base, group, false))
+                            .onItem().transform(output -> new PartialResult(index, output, Duration.ZERO));
+                })
+                .merge(documentConcurrency)
+                .collect().asList()
+                .onItem().transformToUni(reduced -> reduce(provider, base,
+                        reduced.stream().sorted(Comparator.comparingInt(PartialResult::index)).toList()));
+    }
+
+    private int reduceBudget(LlmProvider provider, ProviderPayload base) {
+        if (!promptBudgetEnabled) {
+            return Integer.MAX_VALUE;
+        }
+        int outputTokens = Math.max(Objects.requireNonNullElse(base.maxTokens(), promptDefaultOutputTokens), documentChunkMaxTokens);
+        int instructionTokens = Math.max(provider.estimateTokens(REDUCE_FINAL_INSTRUCTION), provider.estimateTokens(REDUCE_GROUP_INSTRUCTION));
+        return contextWindow(base.model()) - outputTokens
+                - provider.estimateTokens(base.systemPrompt())
+                - provider.estimateTokens(base.stableContext())
+                - provider.estimateTokens(base.userPrompt())
+                - provider.estimateTokens(REDUCE_HEADER)
+                - instructionTokens;
+    }
+
+    private static PartialResult boundPartial(LlmProvider provider, PartialResult partial, int maxTokens) {
+        int tokens = provider.estimateTokens(partialSection(partial));
+        if (tokens <= maxTokens) {
+            return partial;
+        }
+        String output = partial.output() == null ? "" : partial.output();
+        String cut = PromptCompiler.truncate(provider::estimateTokens, output, provider.estimateTokens(output),
+                Math.max(1, maxTokens - (tokens - provider.estimateTokens(output))));
+        return new PartialResult(partial.index(), cut, partial.elapsed());
+    }
+
+    private static List<List<PartialResult>> groupWithinBudget(LlmProvider provider, List<PartialResult> partials, int budget) {
+        List<List<PartialResult>> groups = new ArrayList<>();
+        List<PartialResult> current = new ArrayList<>();
+        long used = 0;
+        for (PartialResult partial : partials) {
+            int tokens = provider.estimateTokens(partialSection(partial));
+            if (current.size() >= 2 && used + tokens > budget) {
+                groups.add(current);
+                current = new ArrayList<>();
+                used = 0;
+            }
+            current.add(partial);
+            used += tokens;
+        }
+        if (!current.isEmpty()) {
+            groups.add(current);
+        }
+        return groups;
+    }
+
+    private ProviderPayload reducePayload(ProviderPayload base, List<PartialResult> partials, boolean last) {
+        if (partials.isEmpty()) {
+            return base;
+        }
+        StringBuilder sb = new StringBuilder(base.userPrompt());
+        sb.append(REDUCE_HEADER);
+        for (PartialResult partial : partials) {
+            sb.append(partialSection(partial));
+        }
+        sb.append(last ? REDUCE_FINAL_INSTRUCTION : REDUCE_GROUP_INSTRUCTION);
+        return new ProviderPayload(
+                base.provider(),
+                base.model(),
+                base.systemPrompt(),
+                sb.toString(),
+                base.temperature(),
+                last ? base.maxTokens() : Integer.valueOf(documentChunkMaxTokens),
+                null,
+                base.stableContext(),
+                base.routeKey()
+        );
+    }
+
+    private static String partialSection(PartialResult partial) {
+        return "\n### Trecho " + (partial.index() + 1) + '\n' + partial.output() + '\n';
+    }
+
+    private InferenceResponse complete(PreparedInference prepared, InferenceRequest request, String output, boolean cached) {
+        RouteConfig route = prepared.route();
+        String providerName = prepared.provider().name();
+        String model = prepared.payload().model();
+        if (!cached && prepared.cacheable()) {
+            responseCachePort.store(prepared.fingerprint(), route.routeKey(), providerName, model, output,
+                    Duration.ofSeconds(route.responseCacheTtlSeconds()));
+        }
+        requestLogPort.saveRequestLog(route.routeKey(), providerName, model, shrink(request.prompt()), shrink(output));
         eventPublisher.publish(new ConnectorEvent(
-                "TRAINING_ITEM_PROCESSED",
+                "INFERENCE_COMPLETED",
                 route.routeKey(),
-                provider.name(),
+                providerName,
                 model,
                 "SUCCESS",
-                "Item de treinamento processado.",
+                cached ? "Inference atendida pelo cache de respostas." : "Inference finalizada.",
                 Instant.now()
         ));
+        return new InferenceResponse(providerName, model, output, route.routeKey(), cached, prepared.promptTokens());
     }
 
     public List<String> listProviderNames() {
         return providerCatalog.listProviders().stream().map(p -> p.name()).toList();
     }
 
-    private RouteConfig resolveRoute(String dataType, String dataCharacteristic) {
+    static RouteConfig resolveRoute(RouteConfigPort routeConfigPort, String dataType, String dataCharacteristic) {
         return routeConfigPort.resolveRoute(dataType, dataCharacteristic)
                 .orElseThrow(() -> new IllegalArgumentException(
                         "Nenhuma rota ativa encontrada para dataType=" + dataType + " e characteristic=" + dataCharacteristic
                 ));
     }
 
-    private String compilePrompt(
+    private ContextBundle loadContext(RouteConfig route, String moduleKey, String profileId) {
+        if ("BUNDLE".equalsIgnoreCase(contextLoadStrategy)) {
+            return knowledgeContextPort.loadContextBundle(
+                    route.routeId(), moduleKey, profileId, CONTEXT_LIMIT, CONTEXT_LIMIT, CONTEXT_LIMIT);
+        }
+        if (!"PARALLEL".equalsIgnoreCase(contextLoadStrategy)) {
+            return new ContextBundle(
+                    routeConfigPort.loadContextSnippets(route.routeId(), CONTEXT_LIMIT),
+                    knowledgeContextPort.loadModuleContext(route.routeId(), moduleKey, CONTEXT_LIMIT),
+                    knowledgeContextPort.loadProfileContext(profileId, moduleKey, CONTEXT_LIMIT)
+            );
+        }
+        List<List<String>> results = ParallelStages.runAll(BLOCKING_EXECUTOR, List.of(
+                new Stage<>("rota", () -> routeConfigPort.loadContextSnippets(route.routeId(), CONTEXT_LIMIT)),
+                new Stage<>("modulo", () -> knowledgeContextPort.loadModuleContext(route.routeId(), moduleKey, CONTEXT_LIMIT)),
+                new Stage<>("perfil", () -> knowledgeContextPort.loadProfileContext(profileId, moduleKey, CONTEXT_LIMIT))
+        ), contextStageTimeout);
+        return new ContextBundle(results.get(0), results.get(1), results.get(2));
+    }
+
+    private ContextBundle rankContext(RouteConfig route, String moduleKey, String profileId, String question, ContextBundle context) {
+        if (!retrievalEnabled() || isBlank(question)) {
+            return context;
+        }
+        long routeId = route.routeId();
+        List<String> routeSnippets = promptCacheEnabled
+                ? context.routeSnippets()
+                : rankSnippets(ContextPartition.route(routeId), question, context.routeSnippets(),
+                        () -> routeConfigPort.loadContextSnippets(routeId, contextRetrievalHydrateLimit));
+        List<String> moduleSnippets = isBlank(moduleKey)
+                ? context.moduleSnippets()
+                : rankSnippets(ContextPartition.module(routeId, moduleKey), question, context.moduleSnippets(),
+                        () -> knowledgeContextPort.loadModuleContext(routeId, moduleKey, contextRetrievalHydrateLimit));
+        List<String> profileSnippets = isBlank(profileId)
+                ? context.profileSnippets()
+                : rankSnippets(ContextPartition.profile(profileId, moduleKey), question, context.profileSnippets(),
+                        () -> knowledgeContextPort.loadProfileContext(profileId, moduleKey, contextRetrievalHydrateLimit));
+        return new ContextBundle(routeSnippets, moduleSnippets, profileSnippets);
+    }
+
+    private List<String> rankSnippets(String partition, String question, List<String> recent, Supplier<List<String>> history) {
+        long now = System.nanoTime();
+        if (claimHydration(partition, now)) {
+            try {
+                contextRetrievalPort.replace(partition, oldestFirst(history.get()));
+            } catch (RuntimeException e) {
+                hydratedAt.remove(partition, now);
+                LOG.warnf(e, "Falha ao carregar historico da particao %s no indice de recuperacao", partition);
+            }
+        }
+        contextRetrievalPort.index(partition, oldestFirst(recent));
+        List<String> relevant = contextRetrievalPort.search(partition, question, CONTEXT_LIMIT);
+        if (relevant.isEmpty()) {
+            return recent;
+        }
+        Set<String> merged = new LinkedHashSet<>(relevant);
+        for (String snippet : recent) {
+            if (merged.size() >= CONTEXT_LIMIT) {
+                break;
+            }
+            merged.add(snippet);
+        }
+        return List.copyOf(merged);
+    }
+
+    private boolean claimHydration(String partition, long now) {
+        Long last = hydratedAt.get(partition);
+        if (last == null) {
+            return hydratedAt.putIfAbsent(partition, now) == null;
+        }
+        return now - last >= contextRetrievalRehydrateEvery.toNanos() && hydratedAt.replace(partition, last, now);
+    }
+
+    private static List<String> oldestFirst(List<String> newestFirst) {
+        List<String> ordered = new ArrayList<>(newestFirst);
+        Collections.reverse(ordered);
+        return ordered;
+    }
+
+    private boolean retrievalEnabled() {
+        return contextRetrievalEngine != null && !"NONE".equalsIgnoreCase(contextRetrievalEngine);
+    }
+
+    private PromptCompiler.CompiledPrompt compilePrompt(
+            LlmProvider provider,
+            String model,
+            RouteConfig route,
+            String systemPrompt,
             String prompt,
-            List<String> routeSnippets,
-            List<String> moduleSnippets,
-            List<String> profileSnippets
+            ContextBundle context
     ) {
-        if (routeSnippets.isEmpty() && moduleSnippets.isEmpty() && profileSnippets.isEmpty()) {
-            return prompt;
+        PromptCompiler.StablePrefix stablePrefix = !promptCacheEnabled
+                ? PromptCompiler.StablePrefix.NONE
+                : retrievalEnabled() ? PromptCompiler.StablePrefix.ROUTE : PromptCompiler.StablePrefix.ROUTE_AND_MODULE;
+        PromptCompiler.CompiledPrompt compiled = promptBudgetEnabled
+                ? new PromptCompiler(provider::estimateTokens, promptContextMaxTokens, promptSnippetMaxTokens)
+                        .compile(systemPrompt, prompt, context, contextWindow(model),
+                                Objects.requireNonNullElse(route.maxTokens(), promptDefaultOutputTokens), stablePrefix)
+                : new PromptCompiler(provider::estimateTokens, Integer.MAX_VALUE, Integer.MAX_VALUE)
+                        .compile(systemPrompt, prompt, context, Integer.MAX_VALUE, 0, stablePrefix);
+        PromptTokenReport report = compiled.report();
+        recordPromptTokens(provider.name(), "system", report.systemTokens());
+        recordPromptTokens(provider.name(), "question", report.questionTokens());
+        recordPromptTokens(provider.name(), "context", report.contextTokens());
+        if (report.truncatedSnippets() > 0 || report.droppedSnippets() > 0) {
+            meterRegistry.counter("connector.prompt.snippets", "route", route.routeKey(), "outcome", "truncated")
+                    .increment(report.truncatedSnippets());
+            meterRegistry.counter("connector.prompt.snippets", "route", route.routeKey(), "outcome", "dropped")
+                    .increment(report.droppedSnippets());
         }
-        StringBuilder sb = new StringBuilder();
-        appendSection(sb, "Contexto de rota", routeSnippets);
-        appendSection(sb, "Contexto de modulo", moduleSnippets);
-        appendSection(sb, "Contexto de perfil", profileSnippets);
-        sb.append("\nPergunta do usuario:\n").append(prompt);
-        return sb.toString();
+        LOG.debugf("Prompt da rota %s: %d tokens de entrada (%d de contexto em orcamento de %d), %d truncados, %d descartados",
+                route.routeKey(), report.inputTokens(), report.contextTokens(), report.contextBudget(),
+                report.truncatedSnippets(), report.droppedSnippets());
+        return compiled;
     }
 
-    private void appendSection(StringBuilder sb, String title, List<String> snippets) {
-        if (snippets.isEmpty()) {
-            return;
-        }
-        sb.append(title).append(":\n");
-        for (String snippet : snippets) {
-            sb.append("- ").append(snippet).append('\n');
+    private void recordPromptTokens(String providerName, String section, int tokens) {
+        DistributionSummary.builder("connector.prompt.tokens")
+                .tag("provider", providerName)
+                .tag("section", section)
+                .register(meterRegistry)
+                .record(tokens);
+    }
+
+    int contextWindow(String model) {
+        int window = promptDefaultContextWindow;
+        int matched = -1;
+        String normalized = model == null ? "" : model.toLowerCase(Locale.ROOT);
+        for (String entry : promptContextWindows == null ? List.<String>of() : promptContextWindows) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            String prefix = entry.substring(0, separator).strip().toLowerCase(Locale.ROOT);
+            if (normalized.startsWith(prefix) && prefix.length() > matched) {
+                matched = prefix.length();
+                window = Integer.parseInt(entry.substring(separator + 1).strip());
+            }
         }
-        sb.append('\n');
+        return window;
     }
 
     private boolean isBlank(String value) {
         return value == null || value.isBlank();
     }
 
-    private static String shrink(String input) {
+    private record PreparedInference(
+            RouteConfig route,
+            LlmProvider provider,
+            ProviderPayload payload,
+            String fingerprint,
+            boolean cacheable,
+            String cachedOutput,
+            PromptTokenReport promptTokens
+    ) {
+    }
+
+    private record PartialResult(int index, String output, Duration elapsed) {
+    }
+
+    private static BufferedReader openDocument(FileAttachment attachment) {
+        try {
+            return new BufferedReader(new InputStreamReader(Files.newInputStream(attachment.path()), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir documento " + attachment.path(), e);
+        }
+    }
+
+    private static void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            LOG.debug("Falha ao fechar leitor do documento", e);
+        }
+    }
+
+    static String shrink(String input) {
         if (input == null) {
             return null;
         }
@@ -0,0 +1,122 @@
+package br.com.ai.connector.application.usecase;
+
+import br.com.ai.connector.application.port.out.ContextRetrievalPort;
+import br.com.ai.connector.application.port.out.KnowledgeCompactionPort;
+import br.com.ai.connector.application.port.out.LlmProviderCatalogPort;
+import br.com.ai.connector.dto.ContextCompactionTarget;
+import br.com.ai.connector.dto.ContextSnippet;
+import br.com.ai.connector.dto.ProviderPayload;
+import br.com.ai.connector.provider.LlmProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.List;
+
+@ApplicationScoped
+public class KnowledgeCompactionUseCase {
+
+    private static final Logger LOG = Logger.getLogger(KnowledgeCompactionUseCase.class);
+    private static final String SYSTEM_PROMPT = """
+            Voce mantem a base de conhecimento condensada de um modulo.
+            Combine o resumo atual com os novos trechos em um unico resumo objetivo.
+            Preserve regras, conceitos, fatos e numeros; remova repeticoes; quando houver conflito, prefira o trecho mais recente.
+            """;
+
+    @Inject
+    KnowledgeCompactionPort compactionPort;
+
+    @Inject
+    LlmProviderCatalogPort providerCatalog;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    ContextRetrievalPort contextRetrievalPort;
+
+    @ConfigProperty(name = "knowledge.compaction.keep-latest")
+    int keepLatest;
+
+    @ConfigProperty(name = "knowledge.compaction.min-rows")
+    int minRows;
+
+    @ConfigProperty(name = "knowledge.compaction.max-rows")
+    int maxRows;
+
+    @ConfigProperty(name = "knowledge.compaction.targets-per-run")
+    int targetsPerRun;
+
+    @ConfigProperty(name = "knowledge.compaction.max-tokens")
+    int maxTokens;
+
+    @ConfigProperty(name = "knowledge.compaction.profile-provider")
+    String profileProvider;
+
+    public int runCompaction() {
+        int compacted = 0;
+        for (String scope : List.of(ContextCompactionTarget.MODULE, ContextCompactionTarget.PROFILE)) {
+            for (ContextCompactionTarget target : compactionPort.findCompactionTargets(scope, keepLatest, minRows, targetsPerRun)) {
+                try {
+                    if (compact(target)) {
+                        compacted++;
+                    }
+                } catch (Exception e) {
+                    LOG.errorf(e, "Falha ao compactar contexto %s owner=%s modulo=%s", scope, target.ownerId(), target.moduleKey());
+                }
+            }
+        }
+        return compacted;
+    }
+
+    boolean compact(ContextCompactionTarget target) {
+        List<ContextSnippet> snippets = compactionPort.loadCompactableContext(target, keepLatest, maxRows);
+        if (snippets.stream().filter(snippet -> !snippet.summary()).count() < 2) {
+            return false;
+        }
+        long start = System.nanoTime();
+        LlmProvider provider = providerCatalog.require(target.provider() == null ? profileProvider : target.provider());
+        String model = target.model() == null || target.model().isBlank() ? provider.defaultModel() : target.model();
+        String summary = provider.invoke(new ProviderPayload(provider.name(), model, SYSTEM_PROMPT, compactionPrompt(snippets), 0.1, maxTokens));
+        if (summary == null || summary.isBlank()) {
+            LOG.warnf("Resumo vazio ao compactar contexto %s owner=%s modulo=%s; linhas mantidas",
+                    target.scope(), target.ownerId(), target.moduleKey());
+            return false;
+        }
+        List<Long> superseded = snippets.stream().map(ContextSnippet::id).toList();
+        if (!compactionPort.replaceWithSummary(target, summary.strip(), superseded)) {
+            LOG.infof("Contexto %s owner=%s modulo=%s alterado durante a compactacao; nova tentativa na proxima execucao",
+                    target.scope(), target.ownerId(), target.moduleKey());
+            return false;
+        }
+        String partition = ContextPartition.of(target);
+        contextRetrievalPort.remove(partition, snippets.stream().map(ContextSnippet::text).toList());
+        contextRetrievalPort.index(partition, List.of(summary.strip()));
+        meterRegistry.counter("connector.knowledge.compaction.rows", "scope", target.scope()).increment(superseded.size());
+        Timer.builder("connector.knowledge.compaction.duration")
+                .tag("scope", target.scope())
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - start));
+        LOG.debugf("Contexto %s owner=%s modulo=%s: %d linhas condensadas em um resumo",
+                target.scope(), target.ownerId(), target.moduleKey(), superseded.size());
+        return true;
+    }
+
+    static String compactionPrompt(List<ContextSnippet> snippets) {
+        StringBuilder prompt = new StringBuilder();
+        snippets.stream().filter(ContextSnippet::summary).forEach(snippet ->
+                prompt.append("Resumo atual:\n").append(snippet.text()).append("\n\n"));
+        prompt.append("Novos trechos, do mais antigo para o mais recente:\n");
+        int index = 1;
+        for (ContextSnippet snippet : snippets) {
+            if (!snippet.summary()) {
+                prompt.append(index++).append(". ").append(snippet.text()).append('\n');
+            }
+        }
+        return prompt.toString();
+    }
+}
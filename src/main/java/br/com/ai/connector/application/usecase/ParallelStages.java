@@ -0,0 +1,93 @@
+package br.com.ai.connector.application.usecase;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class ParallelStages {
+
+    record Stage<T>(String name, Callable<T> task) {
+    }
+
+    private ParallelStages() {
+    }
+
+    static <T> List<T> runAll(ExecutorService executor, List<Stage<T>> stages, Duration stageTimeout) {
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(stages.size());
+        AtomicLongArray startedAt = new AtomicLongArray(stages.size());
+        for (int i = 0; i < stages.size(); i++) {
+            int index = i;
+            Callable<T> task = stages.get(i).task();
+            futures.add(completion.submit(() -> {
+                startedAt.set(index, System.nanoTime());
+                return task.call();
+            }));
+        }
+        long timeoutNanos = stageTimeout.toNanos();
+        try {
+            int completed = 0;
+            while (completed < futures.size()) {
+                long wait = nextDeadline(futures, startedAt, timeoutNanos) - System.nanoTime();
+                Future<T> done = completion.poll(wait, TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    List<String> expired = expiredStages(stages, futures, startedAt, timeoutNanos);
+                    if (!expired.isEmpty()) {
+                        throw new IllegalStateException("Timeout de " + stageTimeout.toMillis()
+                                + " ms ao carregar contexto: " + expired);
+                    }
+                    continue;
+                }
+                done.get();
+                completed++;
+            }
+            return futures.stream().map(Future::resultNow).toList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Carga de contexto interrompida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Falha ao carregar contexto", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static <T> long nextDeadline(List<Future<T>> futures, AtomicLongArray startedAt, long timeoutNanos) {
+        long next = System.nanoTime() + timeoutNanos;
+        for (int i = 0; i < futures.size(); i++) {
+            long started = startedAt.get(i);
+            if (started != 0 && !futures.get(i).isDone()) {
+                next = Math.min(next, started + timeoutNanos);
+            }
+        }
+        return next;
+    }
+
+    private static <T> List<String> expiredStages(
+            List<Stage<T>> stages,
+            List<Future<T>> futures,
+            AtomicLongArray startedAt,
+            long timeoutNanos
+    ) {
+        long now = System.nanoTime();
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < stages.size(); i++) {
+            long started = startedAt.get(i);
+            if (started != 0 && !futures.get(i).isDone() && now - started >= timeoutNanos) {
+                expired.add(stages.get(i).name());
+            }
+        }
+        return expired;
+    }
+}
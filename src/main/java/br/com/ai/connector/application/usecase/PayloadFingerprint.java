@@ -0,0 +1,21 @@
+package br.com.ai.connector.application.usecase;
+
+import br.com.ai.connector.dto.ProviderPayload;
+
+final class PayloadFingerprint {
+
+    private PayloadFingerprint() {
+    }
+
+    static String of(ProviderPayload payload) {
+        return new LengthPrefixedDigest()
+                .add(payload.provider())
+                .add(payload.model())
+                .add(payload.systemPrompt())
+                .add(payload.stableContext())
+                .add(payload.userPrompt())
+                .add(payload.temperature() == null ? null : payload.temperature().toString())
+                .add(payload.maxTokens() == null ? null : payload.maxTokens().toString())
+                .hex();
+    }
+}
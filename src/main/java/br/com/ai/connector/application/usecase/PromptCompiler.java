@@ -0,0 +1,139 @@
+package br.com.ai.connector.application.usecase;
+
+import br.com.ai.connector.dto.ContextBundle;
+import br.com.ai.connector.dto.PromptTokenReport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+final class PromptCompiler {
+
+    enum StablePrefix {
+        NONE,
+        ROUTE,
+        ROUTE_AND_MODULE
+    }
+
+    record CompiledPrompt(String stablePrefix, String text, PromptTokenReport report) {
+    }
+
+    static final String QUESTION_HEADER = "\nPergunta do usuario:\n";
+    private static final String TRUNCATION_MARK = " [...]";
+    private static final int MIN_TRUNCATED_TOKENS = 32;
+
+    private final ToIntFunction<String> estimator;
+    private final int contextBudget;
+    private final int snippetMaxTokens;
+    private int truncated;
+    private int dropped;
+
+    PromptCompiler(ToIntFunction<String> estimator, int contextBudget, int snippetMaxTokens) {
+        this.estimator = estimator;
+        this.contextBudget = contextBudget;
+        this.snippetMaxTokens = snippetMaxTokens;
+    }
+
+    CompiledPrompt compile(
+            String systemPrompt,
+            String question,
+            ContextBundle context,
+            int contextWindow,
+            int reservedOutputTokens,
+            StablePrefix stablePrefix
+    ) {
+        int systemTokens = estimator.applyAsInt(systemPrompt);
+        int questionTokens = estimator.applyAsInt(question) + estimator.applyAsInt(QUESTION_HEADER);
+        int windowRoom = contextWindow - reservedOutputTokens - systemTokens - questionTokens;
+        if (windowRoom < 0) {
+            throw new IllegalArgumentException(
+                    "Prompt com cerca de " + (systemTokens + questionTokens) + " tokens excede a janela de "
+                            + contextWindow + " tokens do modelo (" + reservedOutputTokens + " reservados para a resposta)");
+        }
+        int budget = Math.min(contextBudget, windowRoom);
+        Section route;
+        Section module;
+        Section profile;
+        if (stablePrefix == StablePrefix.NONE) {
+            profile = fill(context.profileSnippets(), budget);
+            module = fill(context.moduleSnippets(), budget - profile.tokens());
+            route = fill(context.routeSnippets(), budget - profile.tokens() - module.tokens());
+        } else if (stablePrefix == StablePrefix.ROUTE) {
+            route = fill(context.routeSnippets(), budget);
+            profile = fill(context.profileSnippets(), budget - route.tokens());
+            module = fill(context.moduleSnippets(), budget - route.tokens() - profile.tokens());
+        } else {
+            route = fill(context.routeSnippets(), budget);
+            module = fill(context.moduleSnippets(), budget - route.tokens());
+            profile = fill(context.profileSnippets(), budget - route.tokens() - module.tokens());
+        }
+
+        PromptTokenReport report = new PromptTokenReport(contextWindow, reservedOutputTokens, budget, systemTokens,
+                questionTokens, route.tokens(), module.tokens(), profile.tokens(), truncated, dropped);
+        if (route.snippets().isEmpty() && module.snippets().isEmpty() && profile.snippets().isEmpty()) {
+            return new CompiledPrompt(null, question, report);
+        }
+        StringBuilder prefix = new StringBuilder();
+        StringBuilder sb = new StringBuilder();
+        appendSection(stablePrefix == StablePrefix.NONE ? sb : prefix, "Contexto de rota", route.snippets());
+        appendSection(stablePrefix == StablePrefix.ROUTE_AND_MODULE ? prefix : sb, "Contexto de modulo", module.snippets());
+        appendSection(sb, "Contexto de perfil", profile.snippets());
+        sb.append(QUESTION_HEADER).append(question);
+        return new CompiledPrompt(prefix.isEmpty() ? null : prefix.toString(), sb.toString(), report);
+    }
+
+    private Section fill(List<String> snippets, int available) {
+        List<String> accepted = new ArrayList<>(snippets.size());
+        int used = 0;
+        for (String snippet : snippets) {
+            int remaining = available - used;
+            int tokens = estimator.applyAsInt(snippet) + 1;
+            int limit = Math.min(snippetMaxTokens, remaining);
+            if (tokens <= limit) {
+                accepted.add(snippet);
+                used += tokens;
+            } else if (limit >= MIN_TRUNCATED_TOKENS) {
+                String cut = truncate(estimator, snippet, tokens, limit - 1);
+                accepted.add(cut);
+                used += estimator.applyAsInt(cut) + 1;
+                truncated++;
+            } else {
+                dropped++;
+            }
+        }
+        return new Section(accepted, used);
+    }
+
+    static String truncate(ToIntFunction<String> estimator, String snippet, int tokens, int maxTokens) {
+        int length = (int) ((long) snippet.length() * maxTokens / tokens);
+        String cut = cutAt(snippet, length);
+        while (length > 0 && estimator.applyAsInt(cut) > maxTokens) {
+            length = length * 9 / 10;
+            cut = cutAt(snippet, length);
+        }
+        return cut;
+    }
+
+    private static String cutAt(String snippet, int length) {
+        int end = Math.max(0, length - TRUNCATION_MARK.length());
+        int space = snippet.lastIndexOf(' ', end);
+        if (space > end / 2) {
+            end = space;
+        }
+        return snippet.substring(0, end).stripTrailing() + TRUNCATION_MARK;
+    }
+
+    private static void appendSection(StringBuilder sb, String title, List<String> snippets) {
+        if (snippets.isEmpty()) {
+            return;
+        }
+        sb.append(title).append(":\n");
+        for (String snippet : snippets) {
+            sb.append("- ").append(snippet).append('\n');
+        }
+        sb.append('\n');
+    }
+
+    private record Section(List<String> snippets, int tokens) {
+    }
+}
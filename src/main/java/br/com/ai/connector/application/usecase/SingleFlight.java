@@ -0,0 +1,45 @@
+package br.com.ai.connector.application.usecase;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+final class SingleFlight {
+
+    private final ConcurrentHashMap<String, Uni<String>> calls = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Multi<String>> streams = new ConcurrentHashMap<>();
+
+    Uni<String> call(String key, Supplier<Uni<String>> upstream, Runnable onJoin) {
+        return Uni.createFrom().deferred(() -> {
+            boolean[] leader = {false};
+            Uni<String> shared = calls.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                return upstream.get()
+                        .onTermination().invoke(() -> calls.remove(k))
+                        .memoize().indefinitely();
+            });
+            if (!leader[0]) {
+                onJoin.run();
+            }
+            return shared;
+        });
+    }
+
+    Multi<String> stream(String key, Supplier<Multi<String>> upstream, Runnable onJoin) {
+        return Multi.createFrom().deferred(() -> {
+            boolean[] leader = {false};
+            Multi<String> shared = streams.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                return upstream.get()
+                        .onTermination().invoke(() -> streams.remove(k))
+                        .cache();
+            });
+            if (!leader[0]) {
+                onJoin.run();
+            }
+            return shared;
+        });
+    }
+}
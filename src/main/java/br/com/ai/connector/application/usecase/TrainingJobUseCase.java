@@ -2,63 +2,462 @@ package br.com.ai.connector.application.usecase;
 
 import br.com.ai.connector.application.port.out.TrainingQueuePort;
 import br.com.ai.connector.dto.TrainingMessage;
+import br.com.ai.connector.dto.TrainingOutcome;
 import br.com.ai.connector.dto.TrainingQueueItem;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 @ApplicationScoped
 public class TrainingJobUseCase {
 
     private static final Logger LOG = Logger.getLogger(TrainingJobUseCase.class);
+    private static final ExecutorService TRAINING_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final long RETRY_WAKE_UP_MARGIN_MILLIS = 500;
 
     @Inject
     TrainingQueuePort trainingQueuePort;
 
     @Inject
-    InferenceUseCase inferenceUseCase;
+    TrainingKnowledgeUseCase trainingKnowledgeUseCase;
 
-    public void runBatch(int batchSize) {
-        List<TrainingQueueItem> items = trainingQueuePort.fetchPendingTrainingItems(batchSize);
-        for (TrainingQueueItem item : items) {
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "job.training.enabled")
+    boolean jobEnabled;
+
+    @ConfigProperty(name = "job.training.batch-size")
+    int batchSize;
+
+    @ConfigProperty(name = "job.training.dispatch.enabled")
+    boolean dispatchEnabled;
+
+    @ConfigProperty(name = "job.training.dispatch.error-delay")
+    Duration dispatchErrorDelay;
+
+    @ConfigProperty(name = "job.training.grouping.enabled")
+    boolean groupingEnabled;
+
+    @ConfigProperty(name = "job.training.grouping.max-items")
+    int groupMaxItems;
+
+    @ConfigProperty(name = "job.training.grouping.max-input-tokens")
+    int groupMaxInputTokens;
+
+    @ConfigProperty(name = "job.training.provider-concurrency")
+    int providerConcurrency;
+
+    @ConfigProperty(name = "job.training.provider-limits")
+    Optional<List<String>> providerLimitOverrides;
+
+    @ConfigProperty(name = "job.training.retry.max-attempts")
+    int retryMaxAttempts;
+
+    @ConfigProperty(name = "job.training.retry.base-delay")
+    Duration retryBaseDelay;
+
+    @ConfigProperty(name = "job.training.retry.max-delay")
+    Duration retryMaxDelay;
+
+    private final ConcurrentHashMap<String, Semaphore> providerLimits = new ConcurrentHashMap<>();
+    private volatile Map<String, Integer> parsedOverrides;
+    private volatile TrainingRetryPolicy retryPolicy;
+    private DistributionSummary groupedItems;
+    private final AtomicLong nextRetryWakeUp = new AtomicLong(Long.MAX_VALUE);
+    private volatile boolean dispatching;
+    private Thread dispatcher;
+
+    @PostConstruct
+    void init() {
+        groupedItems = DistributionSummary.builder("connector.training.group.items").register(meterRegistry);
+        if (jobEnabled && dispatchEnabled) {
+            dispatching = true;
+            dispatcher = Thread.ofPlatform()
+                    .name("training-dispatcher")
+                    .daemon()
+                    .start(this::runDispatcher);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (dispatcher == null) {
+            return;
+        }
+        dispatching = false;
+        LockSupport.unpark(dispatcher);
+        try {
+            dispatcher.join(dispatchErrorDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int runBatch(int batchSize) {
+        List<TrainingQueueItem> items = trainingQueuePort.claimPendingTrainingItems(batchSize);
+        if (items.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        ConcurrentLinkedQueue<TrainingOutcome> outcomes = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>(items.size());
+        for (List<TrainingQueueItem> group : groupItems(items)) {
+            futures.add(TRAINING_EXECUTOR.submit(() -> {
+                if (group.size() > 1) {
+                    outcomes.addAll(processGroup(group));
+                    return;
+                }
+                TrainingOutcome outcome = processItem(group.get(0));
+                if (outcome != null) {
+                    outcomes.add(outcome);
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(f -> f.cancel(true));
+                    return items.size();
+                } catch (ExecutionException e) {
+                    LOG.error("Falha inesperada no processamento paralelo do lote de treinamento", e.getCause());
+                }
+            }
+        } finally {
+            recordOutcomes(outcomes);
+        }
+        LOG.debugf("Lote de treinamento com %d itens processado em %d ms", items.size(), (System.nanoTime() - start) / 1_000_000);
+        return items.size();
+    }
+
+    public void sweep() {
+        if (dispatcher != null) {
+            signalDispatcher();
+            return;
+        }
+        drain();
+    }
+
+    private int drain() {
+        int total = 0;
+        int claimed;
+        do {
+            claimed = runBatch(batchSize);
+            total += claimed;
+        } while (claimed > 0 && claimed >= batchSize && (dispatcher == null || dispatching));
+        return total;
+    }
+
+    private void signalDispatcher() {
+        if (dispatcher != null) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    private void scheduleRetryWakeUp(Instant nextRunAt) {
+        long wakeUp = nextRunAt.toEpochMilli() + RETRY_WAKE_UP_MARGIN_MILLIS;
+        if (nextRetryWakeUp.getAndAccumulate(wakeUp, Math::min) > wakeUp) {
+            signalDispatcher();
+        }
+    }
+
+    private void runDispatcher() {
+        while (dispatching) {
+            awaitWork();
             try {
-                inferenceUseCase.processTrainingItem(
-                        item.dataType(),
-                        item.dataCharacteristic(),
-                        item.moduleKey(),
-                        item.profileId(),
-                        item.content(),
-                        item.sourceType()
-                );
-                trainingQueuePort.markTrainingDone(item.id());
-            } catch (Exception e) {
-                LOG.errorf(e, "Falha no item de treinamento id=%d", item.id());
-                trainingQueuePort.markTrainingFailed(item.id(), e.getMessage());
+                drain();
+            } catch (RuntimeException e) {
+                LOG.error("Falha no processamento imediato da fila de treinamento; a varredura periodica assume os itens", e);
+                LockSupport.parkNanos(dispatchErrorDelay.toNanos());
+            }
+        }
+    }
+
+    private void awaitWork() {
+        long wakeUp = nextRetryWakeUp.get();
+        if (wakeUp == Long.MAX_VALUE) {
+            LockSupport.park(this);
+        } else {
+            long waitMillis = wakeUp - System.currentTimeMillis();
+            if (waitMillis > 0) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(waitMillis));
+            }
+        }
+        long now = System.currentTimeMillis();
+        nextRetryWakeUp.updateAndGet(current -> current <= now ? Long.MAX_VALUE : current);
+    }
+
+    public int releaseExpiredLeases() {
+        int released = trainingQueuePort.releaseExpiredTrainingLeases();
+        if (released > 0) {
+            LOG.warnf("%d itens de treinamento com reserva expirada voltaram para PENDING", released);
+            sweep();
+        }
+        return released;
+    }
+
+    private void recordOutcomes(ConcurrentLinkedQueue<TrainingOutcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+        try {
+            trainingQueuePort.recordTrainingOutcomes(List.copyOf(outcomes));
+            for (TrainingOutcome outcome : outcomes) {
+                if (outcome.nextRunAt() != null) {
+                    scheduleRetryWakeUp(outcome.nextRunAt());
+                }
+            }
+        } catch (Exception e) {
+            LOG.errorf(e, "Falha ao gravar status de %d itens de treinamento; as reservas expiram e os itens serao reprocessados",
+                    outcomes.size());
+        }
+    }
+
+    private List<List<TrainingQueueItem>> groupItems(List<TrainingQueueItem> items) {
+        if (!groupingEnabled || groupMaxItems <= 1) {
+            return items.stream().map(List::of).toList();
+        }
+        Map<String, List<TrainingQueueItem>> byScope = new LinkedHashMap<>();
+        for (TrainingQueueItem item : items) {
+            String scope = String.join("|", item.dataType(), item.dataCharacteristic(),
+                    String.valueOf(item.moduleKey()), String.valueOf(item.profileId()), String.valueOf(item.sourceType()));
+            byScope.computeIfAbsent(scope, key -> new ArrayList<>()).add(item);
+        }
+        List<List<TrainingQueueItem>> groups = new ArrayList<>();
+        for (List<TrainingQueueItem> scoped : byScope.values()) {
+            List<TrainingQueueItem> current = new ArrayList<>();
+            int currentTokens = 0;
+            for (TrainingQueueItem item : scoped) {
+                int tokens = item.content().length() / CHARS_PER_TOKEN + 1;
+                if (!current.isEmpty() && (current.size() >= groupMaxItems || currentTokens + tokens > groupMaxInputTokens)) {
+                    groups.add(current);
+                    current = new ArrayList<>();
+                    currentTokens = 0;
+                }
+                current.add(item);
+                currentTokens += tokens;
+            }
+            groups.add(current);
+        }
+        return groups;
+    }
+
+    private List<TrainingOutcome> processGroup(List<TrainingQueueItem> group) {
+        TrainingQueueItem first = group.get(0);
+        Semaphore limit;
+        try {
+            limit = limitFor(trainingKnowledgeUseCase.providerModelKey(first.dataType(), first.dataCharacteristic()));
+            limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (Exception e) {
+            return group.stream().map(item -> handleFailure(item, e)).toList();
+        }
+        renewLeases(group.stream().map(TrainingQueueItem::id).toList());
+        Set<Integer> attributed;
+        try {
+            attributed = trainingKnowledgeUseCase.processTrainingGroup(
+                    first.dataType(),
+                    first.dataCharacteristic(),
+                    first.moduleKey(),
+                    first.profileId(),
+                    group.stream().map(TrainingQueueItem::content).toList(),
+                    first.sourceType()
+            );
+        } catch (Exception e) {
+            return group.stream().map(item -> handleFailure(item, e)).toList();
+        } finally {
+            limit.release();
+        }
+        groupedItems.record(group.size());
+        List<TrainingOutcome> outcomes = new ArrayList<>(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            if (attributed.contains(i)) {
+                outcomes.add(TrainingOutcome.done(group.get(i).id()));
+                continue;
+            }
+            LOG.debugf("Item de treinamento id=%d sem secao na resposta do grupo; reprocessando individualmente", group.get(i).id());
+            TrainingOutcome outcome = processItem(group.get(i));
+            if (outcome != null) {
+                outcomes.add(outcome);
+            }
+        }
+        return outcomes;
+    }
+
+    private TrainingOutcome processItem(TrainingQueueItem item) {
+        Semaphore limit = null;
+        try {
+            limit = limitFor(trainingKnowledgeUseCase.providerModelKey(item.dataType(), item.dataCharacteristic()));
+            limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return handleFailure(item, e);
+        }
+        renewLeases(List.of(item.id()));
+        try {
+            trainingKnowledgeUseCase.processTrainingItem(
+                    item.dataType(),
+                    item.dataCharacteristic(),
+                    item.moduleKey(),
+                    item.profileId(),
+                    item.content(),
+                    item.sourceType()
+            );
+            return TrainingOutcome.done(item.id());
+        } catch (Exception e) {
+            return handleFailure(item, e);
+        } finally {
+            limit.release();
+        }
+    }
+
+    private void renewLeases(List<Long> ids) {
+        try {
+            trainingQueuePort.renewTrainingLeases(ids);
+        } catch (Exception e) {
+            LOG.warnf(e, "Falha ao renovar a reserva de %d itens de treinamento; mantida a reserva do momento do claim", ids.size());
+        }
+    }
+
+    private TrainingOutcome handleFailure(TrainingQueueItem item, Exception error) {
+        TrainingRetryPolicy.Decision decision = retryPolicy().decide(item.attempt(), error, Instant.now());
+        String reason = error.getMessage();
+        return switch (decision.action()) {
+            case RETRY -> {
+                LOG.warnf(error, "Falha transitoria no item de treinamento id=%d (tentativa %d); novo agendamento em %s",
+                        item.id(), item.attempt(), decision.nextRunAt());
+                yield TrainingOutcome.retry(item.id(), reason, decision.nextRunAt());
+            }
+            case DEAD -> {
+                LOG.errorf(error, "Item de treinamento id=%d esgotou %d tentativas", item.id(), item.attempt());
+                yield TrainingOutcome.dead(item.id(), reason);
+            }
+            default -> {
+                LOG.errorf(error, "Falha no item de treinamento id=%d", item.id());
+                yield TrainingOutcome.failed(item.id(), reason);
+            }
+        };
+    }
+
+    private TrainingRetryPolicy retryPolicy() {
+        TrainingRetryPolicy current = retryPolicy;
+        if (current == null) {
+            current = new TrainingRetryPolicy(retryMaxAttempts, retryBaseDelay, retryMaxDelay, new Random());
+            retryPolicy = current;
+        }
+        return current;
+    }
+
+    private Semaphore limitFor(String providerModel) {
+        return providerLimits.computeIfAbsent(providerModel, key -> new Semaphore(permitsFor(key)));
+    }
+
+    private int permitsFor(String providerModel) {
+        Map<String, Integer> overrides = overrides();
+        Integer permits = overrides.get(providerModel);
+        if (permits == null) {
+            permits = overrides.get(providerModel.substring(0, providerModel.indexOf('/')));
+        }
+        return Math.max(1, permits == null ? providerConcurrency : permits);
+    }
+
+    private Map<String, Integer> overrides() {
+        Map<String, Integer> current = parsedOverrides;
+        if (current == null) {
+            current = new HashMap<>();
+            for (String entry : providerLimitOverrides == null ? List.<String>of() : providerLimitOverrides.orElse(List.of())) {
+                int separator = entry.lastIndexOf('=');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Limite de concorrencia invalido em job.training.provider-limits: " + entry);
+                }
+                current.put(entry.substring(0, separator).trim(), Integer.parseInt(entry.substring(separator + 1).trim()));
             }
+            parsedOverrides = current;
         }
+        return current;
     }
 
     public void enqueue(TrainingMessage message) {
-        if (message == null
-                || isBlank(message.dataType())
-                || isBlank(message.dataCharacteristic())
-                || isBlank(message.content())) {
-            throw new IllegalArgumentException("Mensagem de treinamento incompleta.");
+        enqueueAll(Collections.singletonList(message));
+    }
+
+    public int enqueueAll(List<TrainingMessage> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return 0;
+        }
+        Map<String, TrainingMessage> byContentHash = new LinkedHashMap<>();
+        for (TrainingMessage message : messages) {
+            validate(message);
+            byContentHash.putIfAbsent(contentHash(message), message);
         }
-        trainingQueuePort.enqueueTrainingItem(
+        int inserted = trainingQueuePort.enqueueTrainingItems(byContentHash);
+        int duplicates = messages.size() - inserted;
+        if (duplicates > 0) {
+            meterRegistry.counter("connector.training.dedup", "stage", "enqueue").increment(duplicates);
+            LOG.debugf("%d de %d mensagens de treinamento ignoradas por conteudo repetido", duplicates, messages.size());
+        }
+        if (inserted > 0) {
+            signalDispatcher();
+        }
+        return inserted;
+    }
+
+    static String contentHash(TrainingMessage message) {
+        return ContentFingerprint.of(
+                message.content(),
                 message.dataType(),
                 message.dataCharacteristic(),
-                message.content(),
                 message.routeKey(),
                 message.moduleKey(),
-                message.profileId(),
-                message.sourceType()
+                message.profileId()
         );
     }
 
-    private boolean isBlank(String value) {
+    public static void validate(TrainingMessage message) {
+        if (message == null
+                || isBlank(message.dataType())
+                || isBlank(message.dataCharacteristic())
+                || isBlank(message.content())) {
+            throw new IllegalArgumentException("Mensagem de treinamento incompleta.");
+        }
+    }
+
+    private static boolean isBlank(String value) {
         return value == null || value.isBlank();
     }
 }
@@ -0,0 +1,186 @@
+package br.com.ai.connector.application.usecase;
+
+import br.com.ai.connector.application.port.out.ContextRetrievalPort;
+import br.com.ai.connector.application.port.out.EventPublisherPort;
+import br.com.ai.connector.application.port.out.KnowledgeContextPort;
+import br.com.ai.connector.application.port.out.LlmProviderCatalogPort;
+import br.com.ai.connector.application.port.out.RequestLogPort;
+import br.com.ai.connector.application.port.out.RouteConfigPort;
+import br.com.ai.connector.dto.ConnectorEvent;
+import br.com.ai.connector.dto.ProviderPayload;
+import br.com.ai.connector.dto.RouteConfig;
+import br.com.ai.connector.provider.LlmProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@ApplicationScoped
+public class TrainingKnowledgeUseCase {
+
+    private static final String TRAINING_SYSTEM_PROMPT = """
+            Voce esta recebendo atualizacao de conhecimento de dominio.
+            Extraia regras, conceitos e fatos uteis para respostas futuras.
+            """;
+    private static final String TRAINING_GROUP_INSTRUCTIONS = """
+            Os conteudos estao numerados como [ITEM n].
+            Responda com uma secao por item, na mesma ordem, cada uma iniciando por uma linha contendo apenas [ITEM n].
+            Nao misture conhecimento de itens diferentes na mesma secao.
+            """;
+    private static final int TRAINING_MAX_TOKENS = 800;
+    private static final Pattern ITEM_HEADER = Pattern.compile("(?m)^[\\s#*]*\\[ITEM (\\d+)][\\s*:]*$");
+
+    @Inject
+    RouteConfigPort routeConfigPort;
+
+    @Inject
+    RequestLogPort requestLogPort;
+
+    @Inject
+    LlmProviderCatalogPort providerCatalog;
+
+    @Inject
+    EventPublisherPort eventPublisher;
+
+    @Inject
+    KnowledgeContextPort knowledgeContextPort;
+
+    @Inject
+    ContextRetrievalPort contextRetrievalPort;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "job.training.grouping.max-output-tokens")
+    int trainingGroupMaxTokens;
+
+    public void processTrainingItem(
+            String dataType,
+            String characteristic,
+            String moduleKey,
+            String profileId,
+            String content,
+            String sourceType
+    ) {
+        RouteConfig route = InferenceUseCase.resolveRoute(routeConfigPort, dataType, characteristic);
+        LlmProvider provider = providerCatalog.require(route.provider());
+        String model = route.effectiveModel(provider.defaultModel());
+        String userPrompt = "Conteudo de atualizacao:\n" + content;
+        ProviderPayload payload = new ProviderPayload(provider.name(), model, TRAINING_SYSTEM_PROMPT, userPrompt, 0.1, TRAINING_MAX_TOKENS);
+        String output = provider.invoke(payload);
+
+        storeTrainingKnowledge(route, moduleKey, profileId, output, sourceType);
+        requestLogPort.saveRequestLog(route.routeKey(), provider.name(), model,
+                InferenceUseCase.shrink(userPrompt), InferenceUseCase.shrink(output));
+        eventPublisher.publish(new ConnectorEvent(
+                "TRAINING_ITEM_PROCESSED",
+                route.routeKey(),
+                provider.name(),
+                model,
+                "SUCCESS",
+                "Item de treinamento processado.",
+                Instant.now()
+        ));
+    }
+
+    public Set<Integer> processTrainingGroup(
+            String dataType,
+            String characteristic,
+            String moduleKey,
+            String profileId,
+            List<String> contents,
+            String sourceType
+    ) {
+        RouteConfig route = InferenceUseCase.resolveRoute(routeConfigPort, dataType, characteristic);
+        LlmProvider provider = providerCatalog.require(route.provider());
+        String model = route.effectiveModel(provider.defaultModel());
+        StringBuilder userPrompt = new StringBuilder("Conteudos de atualizacao:\n");
+        for (int i = 0; i < contents.size(); i++) {
+            userPrompt.append("\n[ITEM ").append(i + 1).append("]\n").append(contents.get(i)).append('\n');
+        }
+        int maxTokens = Math.min(TRAINING_MAX_TOKENS * contents.size(), trainingGroupMaxTokens);
+        ProviderPayload payload = new ProviderPayload(
+                provider.name(), model, TRAINING_SYSTEM_PROMPT + TRAINING_GROUP_INSTRUCTIONS, userPrompt.toString(), 0.1, maxTokens);
+        String output = provider.invoke(payload);
+
+        Map<Integer, String> sections = splitItemSections(output, contents.size());
+        sections.forEach((index, knowledge) -> storeTrainingKnowledge(route, moduleKey, profileId, knowledge, sourceType));
+        requestLogPort.saveRequestLog(route.routeKey(), provider.name(), model,
+                InferenceUseCase.shrink(userPrompt.toString()), InferenceUseCase.shrink(output));
+        eventPublisher.publish(new ConnectorEvent(
+                "TRAINING_ITEM_PROCESSED",
+                route.routeKey(),
+                provider.name(),
+                model,
+                sections.size() == contents.size() ? "SUCCESS" : "PARTIAL",
+                "Grupo de treinamento processado: " + sections.size() + " de " + contents.size() + " itens atribuidos.",
+                Instant.now()
+        ));
+        return sections.keySet();
+    }
+
+    public String providerModelKey(String dataType, String characteristic) {
+        RouteConfig route = InferenceUseCase.resolveRoute(routeConfigPort, dataType, characteristic);
+        LlmProvider provider = providerCatalog.require(route.provider());
+        return provider.name() + "/" + route.effectiveModel(provider.defaultModel());
+    }
+
+    static Map<Integer, String> splitItemSections(String output, int itemCount) {
+        Map<Integer, String> sections = new TreeMap<>();
+        if (output == null) {
+            return sections;
+        }
+        Matcher matcher = ITEM_HEADER.matcher(output);
+        int index = -1;
+        int bodyStart = 0;
+        while (matcher.find()) {
+            putSection(sections, index, output.substring(bodyStart, matcher.start()), itemCount);
+            index = Integer.parseInt(matcher.group(1)) - 1;
+            bodyStart = matcher.end();
+        }
+        putSection(sections, index, output.substring(bodyStart), itemCount);
+        return sections;
+    }
+
+    private static void putSection(Map<Integer, String> sections, int index, String body, int itemCount) {
+        String knowledge = body.strip();
+        if (index >= 0 && index < itemCount && !knowledge.isEmpty()) {
+            sections.merge(index, knowledge, (a, b) -> a + "\n" + b);
+        }
+    }
+
+    private void storeTrainingKnowledge(RouteConfig route, String moduleKey, String profileId, String knowledge, String sourceType) {
+        String effectiveSource = isBlank(sourceType) ? "JOB" : sourceType;
+        String effectiveModule = isBlank(moduleKey) ? "GENERAL" : moduleKey;
+        String moduleHash = ContentFingerprint.of(knowledge, String.valueOf(route.routeId()), effectiveModule);
+        if (knowledgeContextPort.saveModuleContext(route.routeId(), effectiveModule, knowledge, moduleHash, effectiveSource)) {
+            contextRetrievalPort.index(ContextPartition.module(route.routeId(), effectiveModule), List.of(knowledge));
+        } else {
+            countDeduplicated("module_context");
+        }
+        if (!isBlank(profileId)) {
+            String profileHash = ContentFingerprint.of(knowledge, profileId, effectiveModule);
+            if (knowledgeContextPort.saveProfileContext(profileId, effectiveModule, knowledge, profileHash, effectiveSource)) {
+                contextRetrievalPort.index(ContextPartition.profile(profileId, effectiveModule), List.of(knowledge));
+            } else {
+                countDeduplicated("profile_context");
+            }
+        }
+    }
+
+    private void countDeduplicated(String stage) {
+        meterRegistry.counter("connector.training.dedup", "stage", stage).increment();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
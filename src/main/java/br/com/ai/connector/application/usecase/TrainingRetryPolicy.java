@@ -0,0 +1,87 @@
+package br.com.ai.connector.application.usecase;
+
+import br.com.ai.connector.provider.ProviderHttpException;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeoutException;
+import java.util.random.RandomGenerator;
+
+final class TrainingRetryPolicy {
+
+    enum Action {
+        RETRY,
+        FAIL,
+        DEAD
+    }
+
+    record Decision(Action action, Instant nextRunAt) {
+    }
+
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final RandomGenerator random;
+
+    TrainingRetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay, RandomGenerator random) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.random = random;
+    }
+
+    Decision decide(int attempt, Throwable error, Instant now) {
+        if (!isRetryable(error)) {
+            return new Decision(Action.FAIL, null);
+        }
+        if (attempt >= maxAttempts) {
+            return new Decision(Action.DEAD, null);
+        }
+        return new Decision(Action.RETRY, now.plus(backoff(attempt)));
+    }
+
+    Duration backoff(int attempt) {
+        int exponent = Math.min(Math.max(attempt - 1, 0), 30);
+        long ceiling = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << exponent);
+        if (ceiling <= 0) {
+            return Duration.ZERO;
+        }
+        long half = ceiling / 2;
+        return Duration.ofMillis(half + random.nextLong(ceiling - half + 1));
+    }
+
+    static boolean isRetryable(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof ProviderHttpException http) {
+                return http.isRetryable();
+            }
+            if (current instanceof IllegalArgumentException) {
+                return false;
+            }
+            if (isTransient(current)) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTransient(Throwable error) {
+        return error instanceof IOException
+                || error instanceof UncheckedIOException
+                || error instanceof TimeoutException
+                || error instanceof SQLTransientException
+                || error instanceof SQLRecoverableException
+                || error instanceof org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException
+                || error instanceof CircuitBreakerOpenException
+                || error instanceof BulkheadException;
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.ai.connector.dto;
+
+import java.time.Instant;
+
+public record CachedResponse(
+        String output,
+        Instant expiresAt
+) {
+}
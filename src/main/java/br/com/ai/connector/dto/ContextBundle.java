@@ -0,0 +1,13 @@
+package br.com.ai.connector.dto;
+
+import java.util.List;
+
+public record ContextBundle(
+        List<String> routeSnippets,
+        List<String> moduleSnippets,
+        List<String> profileSnippets
+) {
+    public boolean isEmpty() {
+        return routeSnippets.isEmpty() && moduleSnippets.isEmpty() && profileSnippets.isEmpty();
+    }
+}
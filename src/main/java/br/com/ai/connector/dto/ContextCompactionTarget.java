@@ -0,0 +1,17 @@
+package br.com.ai.connector.dto;
+
+public record ContextCompactionTarget(
+        String scope,
+        String ownerId,
+        String moduleKey,
+        String provider,
+        String model,
+        int rowCount
+) {
+    public static final String MODULE = "MODULE";
+    public static final String PROFILE = "PROFILE";
+
+    public boolean moduleScope() {
+        return MODULE.equals(scope);
+    }
+}
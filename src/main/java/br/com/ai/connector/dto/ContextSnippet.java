@@ -0,0 +1,13 @@
+package br.com.ai.connector.dto;
+
+public record ContextSnippet(
+        long id,
+        String text,
+        String sourceType
+) {
+    public static final String SUMMARY_SOURCE = "SUMMARY";
+
+    public boolean summary() {
+        return SUMMARY_SOURCE.equals(sourceType);
+    }
+}
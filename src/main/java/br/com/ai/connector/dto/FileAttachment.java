@@ -0,0 +1,9 @@
+package br.com.ai.connector.dto;
+
+import java.nio.file.Path;
+
+public record FileAttachment(
+        Path path,
+        long size
+) {
+}
@@ -4,6 +4,11 @@ public record InferenceResponse(
         String provider,
         String model,
         String output,
-        String routeKey
+        String routeKey,
+        boolean cached,
+        PromptTokenReport promptTokens
 ) {
+    public InferenceResponse(String provider, String model, String output, String routeKey) {
+        this(provider, model, output, routeKey, false, null);
+    }
 }
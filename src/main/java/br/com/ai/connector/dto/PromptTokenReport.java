@@ -0,0 +1,22 @@
+package br.com.ai.connector.dto;
+
+public record PromptTokenReport(
+        int contextWindow,
+        int reservedOutputTokens,
+        int contextBudget,
+        int systemTokens,
+        int questionTokens,
+        int routeTokens,
+        int moduleTokens,
+        int profileTokens,
+        int truncatedSnippets,
+        int droppedSnippets
+) {
+    public int contextTokens() {
+        return routeTokens + moduleTokens + profileTokens;
+    }
+
+    public int inputTokens() {
+        return systemTokens + questionTokens + contextTokens();
+    }
+}
@@ -6,6 +6,39 @@ public record ProviderPayload(
         String systemPrompt,
         String userPrompt,
         Double temperature,
-        Integer maxTokens
+        Integer maxTokens,
+        FileAttachment attachment,
+        String stableContext,
+        String routeKey
 ) {
+    public ProviderPayload(
+            String provider,
+            String model,
+            String systemPrompt,
+            String userPrompt,
+            Double temperature,
+            Integer maxTokens,
+            FileAttachment attachment
+    ) {
+        this(provider, model, systemPrompt, userPrompt, temperature, maxTokens, attachment, null, null);
+    }
+
+    public ProviderPayload(
+            String provider,
+            String model,
+            String systemPrompt,
+            String userPrompt,
+            Double temperature,
+            Integer maxTokens
+    ) {
+        this(provider, model, systemPrompt, userPrompt, temperature, maxTokens, null);
+    }
+
+    public boolean hasStableContext() {
+        return stableContext != null && !stableContext.isEmpty();
+    }
+
+    public String fullPrompt() {
+        return hasStableContext() ? stableContext + userPrompt : userPrompt;
+    }
 }
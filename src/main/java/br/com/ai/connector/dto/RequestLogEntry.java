@@ -0,0 +1,13 @@
+package br.com.ai.connector.dto;
+
+import java.time.Instant;
+
+public record RequestLogEntry(
+        String routeKey,
+        String provider,
+        String model,
+        String requestSummary,
+        String responseSummary,
+        Instant createdAt
+) {
+}
@@ -7,9 +7,44 @@ public record RouteConfig(
         String model,
         String systemPrompt,
         Double temperature,
-        Integer maxTokens
+        Integer maxTokens,
+        String documentMode,
+        Integer responseCacheTtlSeconds
 ) {
+    public RouteConfig(
+            long routeId,
+            String routeKey,
+            String provider,
+            String model,
+            String systemPrompt,
+            Double temperature,
+            Integer maxTokens,
+            String documentMode
+    ) {
+        this(routeId, routeKey, provider, model, systemPrompt, temperature, maxTokens, documentMode, null);
+    }
+
+    public RouteConfig(
+            long routeId,
+            String routeKey,
+            String provider,
+            String model,
+            String systemPrompt,
+            Double temperature,
+            Integer maxTokens
+    ) {
+        this(routeId, routeKey, provider, model, systemPrompt, temperature, maxTokens, "SINGLE", null);
+    }
+
     public String effectiveModel(String fallbackModel) {
         return (model == null || model.isBlank()) ? fallbackModel : model;
     }
+
+    public boolean mapReduceDocuments() {
+        return "MAP_REDUCE".equalsIgnoreCase(documentMode);
+    }
+
+    public boolean responseCacheEnabled() {
+        return responseCacheTtlSeconds != null && responseCacheTtlSeconds > 0;
+    }
 }
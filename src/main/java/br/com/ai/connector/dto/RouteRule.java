@@ -0,0 +1,9 @@
+package br.com.ai.connector.dto;
+
+public record RouteRule(
+        String dataType,
+        String dataCharacteristic,
+        int priority,
+        RouteConfig config
+) {
+}
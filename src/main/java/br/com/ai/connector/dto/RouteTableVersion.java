@@ -0,0 +1,9 @@
+package br.com.ai.connector.dto;
+
+import java.time.Instant;
+
+public record RouteTableVersion(
+        long totalRoutes,
+        Instant lastUpdatedAt
+) {
+}
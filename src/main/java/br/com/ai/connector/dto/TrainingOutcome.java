@@ -0,0 +1,26 @@
+package br.com.ai.connector.dto;
+
+import java.time.Instant;
+
+public record TrainingOutcome(
+        long id,
+        String status,
+        String reason,
+        Instant nextRunAt
+) {
+    public static TrainingOutcome done(long id) {
+        return new TrainingOutcome(id, "DONE", null, null);
+    }
+
+    public static TrainingOutcome failed(long id, String reason) {
+        return new TrainingOutcome(id, "FAILED", reason, null);
+    }
+
+    public static TrainingOutcome retry(long id, String reason, Instant nextRunAt) {
+        return new TrainingOutcome(id, "PENDING", reason, nextRunAt);
+    }
+
+    public static TrainingOutcome dead(long id, String reason) {
+        return new TrainingOutcome(id, "DEAD", reason, null);
+    }
+}
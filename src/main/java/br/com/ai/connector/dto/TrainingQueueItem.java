@@ -8,6 +8,19 @@ public record TrainingQueueItem(
         String routeKey,
         String moduleKey,
         String profileId,
-        String sourceType
+        String sourceType,
+        int attempt
 ) {
+    public TrainingQueueItem(
+            long id,
+            String dataType,
+            String dataCharacteristic,
+            String content,
+            String routeKey,
+            String moduleKey,
+            String profileId,
+            String sourceType
+    ) {
+        this(id, dataType, dataCharacteristic, content, routeKey, moduleKey, profileId, sourceType, 1);
+    }
 }
@@ -3,6 +3,9 @@ package br.com.ai.connector.provider;
 import br.com.ai.connector.dto.ProviderPayload;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.faulttolerance.api.AsynchronousNonBlocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.faulttolerance.Timeout;
@@ -14,7 +17,7 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -33,14 +36,28 @@ public class AnthropicProvider implements LlmProvider {
     @ConfigProperty(name = "provider.anthropic.version")
     String version;
 
+    @ConfigProperty(name = "provider.anthropic.prompt-cache.enabled")
+    boolean promptCacheEnabled;
+
     private final HttpClient httpClient = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(20))
             .build();
 
     private final ObjectMapper objectMapper;
-
-    public AnthropicProvider(ObjectMapper objectMapper) {
+    private final SseStreamClient sseStreamClient;
+    private final AttachmentBodyPublisher attachmentBodyPublisher;
+    private final PromptCacheMetrics promptCacheMetrics;
+
+    public AnthropicProvider(
+            ObjectMapper objectMapper,
+            SseStreamClient sseStreamClient,
+            AttachmentBodyPublisher attachmentBodyPublisher,
+            PromptCacheMetrics promptCacheMetrics
+    ) {
         this.objectMapper = objectMapper;
+        this.sseStreamClient = sseStreamClient;
+        this.attachmentBodyPublisher = attachmentBodyPublisher;
+        this.promptCacheMetrics = promptCacheMetrics;
     }
 
     @Override
@@ -53,35 +70,119 @@ public class AnthropicProvider implements LlmProvider {
         return defaultModel;
     }
 
+    @Override
+    public int estimateTokens(String text) {
+        return TokenEstimator.estimate(text, 3.5);
+    }
+
     @Override
     @Retry(maxRetries = 2, delay = 300)
     @Timeout(130000)
     public String invoke(ProviderPayload payload) {
         ensureApiKey();
+        String marker = AttachmentBodyPublisher.markerFor(payload);
+        HttpRequest request = buildRequest(requestBody(buildBody(payload, marker), payload, marker), "application/json");
+        String response = send(request);
+        return parseAnthropicText(response, payload);
+    }
+
+    @Override
+    @AsynchronousNonBlocking
+    @Retry(maxRetries = 2, delay = 300)
+    @Timeout(130000)
+    public Uni<String> invokeAsync(ProviderPayload payload) {
+        return Uni.createFrom().deferred(() -> {
+            ensureApiKey();
+            String marker = AttachmentBodyPublisher.markerFor(payload);
+            HttpRequest request = buildRequest(requestBody(buildBody(payload, marker), payload, marker), "application/json");
+            return Uni.createFrom().completionStage(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                    .onItem().transform(this::readBody)
+                    .onItem().transform(body -> parseAnthropicText(body, payload));
+        });
+    }
+
+    @Override
+    public Multi<String> stream(ProviderPayload payload) {
+        ensureApiKey();
+        String marker = AttachmentBodyPublisher.markerFor(payload);
+        Map<String, Object> body = buildBody(payload, marker);
+        body.put("stream", true);
+        HttpRequest request = buildRequest(requestBody(body, payload, marker), "text/event-stream");
+        return sseStreamClient.stream(httpClient, request, name(), "Anthropic", payload.model(),
+                event -> parseStreamDelta(event, payload));
+    }
 
-        Map<String, Object> body = new HashMap<>();
+    Map<String, Object> buildBody(ProviderPayload payload, String marker) {
+        Map<String, Object> body = new LinkedHashMap<>();
         body.put("model", payload.model());
-        body.put("system", payload.systemPrompt());
+        body.put("system", promptCacheEnabled ? List.of(textBlock(payload.systemPrompt(), true)) : payload.systemPrompt());
         body.put("temperature", payload.temperature() == null ? 0.2 : payload.temperature());
         body.put("max_tokens", payload.maxTokens() == null ? 1200 : payload.maxTokens());
-        body.put("messages", List.of(Map.of("role", "user", "content", payload.userPrompt())));
+        Object content = payload.hasStableContext()
+                ? List.of(textBlock(payload.stableContext(), promptCacheEnabled),
+                        textBlock(AttachmentBodyPublisher.userContent(payload, marker), false))
+                : AttachmentBodyPublisher.userContent(payload, marker);
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("role", "user");
+        message.put("content", content);
+        body.put("messages", List.of(message));
+        return body;
+    }
+
+    private static Map<String, Object> textBlock(String text, boolean cacheBreakpoint) {
+        Map<String, Object> block = new LinkedHashMap<>();
+        block.put("type", "text");
+        block.put("text", text);
+        if (cacheBreakpoint) {
+            block.put("cache_control", Map.of("type", "ephemeral"));
+        }
+        return block;
+    }
+
+    private HttpRequest.BodyPublisher requestBody(Map<String, Object> body, ProviderPayload payload, String marker) {
+        if (payload.attachment() == null) {
+            return HttpRequest.BodyPublishers.ofString(toJson(body));
+        }
+        return attachmentBodyPublisher.publisher(toJson(body), payload.attachment(), marker);
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
+    private HttpRequest buildRequest(HttpRequest.BodyPublisher body, String accept) {
+        return HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl + "/v1/messages"))
                 .timeout(Duration.ofSeconds(120))
                 .header("Content-Type", "application/json")
+                .header("Accept", accept)
                 .header("x-api-key", apiKey)
                 .header("anthropic-version", version)
-                .POST(HttpRequest.BodyPublishers.ofString(toJson(body)))
+                .POST(body)
                 .build();
+    }
 
-        String response = send(request);
-        return parseAnthropicText(response);
+    private String parseStreamDelta(SseEvent event, ProviderPayload payload) {
+        try {
+            JsonNode root = objectMapper.readTree(event.data());
+            String type = root.path("type").asText(event.event() == null ? "" : event.event());
+            return switch (type) {
+                case "message_start" -> {
+                    recordUsage(root.path("message").path("usage"), payload);
+                    yield null;
+                }
+                case "content_block_delta" -> {
+                    JsonNode delta = root.path("delta");
+                    yield "text_delta".equals(delta.path("type").asText()) ? delta.path("text").asText() : null;
+                }
+                case "error" -> throw new IllegalStateException("Anthropic retornou erro no streaming: " + event.data());
+                default -> null;
+            };
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao interpretar evento de streaming da Anthropic", e);
+        }
     }
 
-    private String parseAnthropicText(String responseBody) {
+    String parseAnthropicText(String responseBody, ProviderPayload payload) {
         try {
             JsonNode root = objectMapper.readTree(responseBody);
+            recordUsage(root.path("usage"), payload);
             JsonNode content = root.path("content");
             if (content.isArray() && !content.isEmpty()) {
                 JsonNode text = content.get(0).path("text");
@@ -95,13 +196,15 @@ public class AnthropicProvider implements LlmProvider {
         }
     }
 
+    private void recordUsage(JsonNode usage, ProviderPayload payload) {
+        long cacheRead = usage.path("cache_read_input_tokens").asLong();
+        long cacheWrite = usage.path("cache_creation_input_tokens").asLong();
+        promptCacheMetrics.record(name(), payload, usage.path("input_tokens").asLong() + cacheRead + cacheWrite, cacheRead, cacheWrite);
+    }
+
     private String send(HttpRequest request) {
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() >= 300) {
-                throw new IllegalStateException("Anthropic retornou erro HTTP " + response.statusCode() + ": " + response.body());
-            }
-            return response.body();
+            return readBody(httpClient.send(request, HttpResponse.BodyHandlers.ofString()));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Erro ao chamar Anthropic", e);
@@ -110,6 +213,13 @@ public class AnthropicProvider implements LlmProvider {
         }
     }
 
+    private String readBody(HttpResponse<String> response) {
+        if (response.statusCode() >= 300) {
+            throw new ProviderHttpException("Anthropic", response.statusCode(), response.body());
+        }
+        return response.body();
+    }
+
     private String toJson(Map<String, Object> body) {
         try {
             return objectMapper.writeValueAsString(body);
@@ -0,0 +1,91 @@
+package br.com.ai.connector.provider;
+
+import br.com.ai.connector.dto.FileAttachment;
+import br.com.ai.connector.dto.ProviderPayload;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+@ApplicationScoped
+public class AttachmentBodyPublisher {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "file.upload.chunk-size")
+    MemorySize chunkSize;
+
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final AtomicLong peakBufferedBytes = new AtomicLong();
+    private DistributionSummary bodySize;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("connector.file.upload.buffer.bytes", bufferedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("connector.file.upload.buffer.peak.bytes", peakBufferedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        bodySize = DistributionSummary.builder("connector.file.upload.body.bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    static String markerFor(ProviderPayload payload) {
+        return payload.attachment() == null ? null : "__connector_attachment_" + UUID.randomUUID() + "__";
+    }
+
+    static String userContent(ProviderPayload payload, String marker) {
+        return marker == null ? payload.userPrompt() : payload.userPrompt() + marker;
+    }
+
+    HttpRequest.BodyPublisher publisher(String json, FileAttachment attachment, String marker) {
+        int index = json.indexOf(marker);
+        if (index < 0 || json.indexOf(marker, index + marker.length()) >= 0) {
+            throw new IllegalStateException("Corpo da requisicao deve conter o marcador do arquivo anexado exatamente uma vez.");
+        }
+        byte[] prefix = json.substring(0, index).getBytes(StandardCharsets.UTF_8);
+        byte[] suffix = json.substring(index + marker.length()).getBytes(StandardCharsets.UTF_8);
+        long contentLength = prefix.length + Base64FileInputStream.encodedLength(attachment.size()) + suffix.length;
+        bodySize.record(contentLength);
+        return HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> open(prefix, attachment, suffix)),
+                contentLength
+        );
+    }
+
+    private InputStream open(byte[] prefix, FileAttachment attachment, byte[] suffix) {
+        int chunk = (int) Math.min(Integer.MAX_VALUE, chunkSize.asLongValue());
+        int raw = Base64FileInputStream.rawChunkSize(chunk);
+        long buffers = raw + Base64FileInputStream.encodedLength(raw);
+        try {
+            InputStream file = new Base64FileInputStream(attachment.path(), chunk, () -> bufferedBytes.addAndGet(-buffers));
+            peakBufferedBytes.accumulateAndGet(bufferedBytes.addAndGet(buffers), Math::max);
+            return new SequenceInputStream(Collections.enumeration(List.of(
+                    new ByteArrayInputStream(prefix),
+                    file,
+                    new ByteArrayInputStream(suffix)
+            )));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir arquivo anexado " + attachment.path(), e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.ai.connector.provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Base64;
+
+final class Base64FileInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final ByteBuffer raw;
+    private final byte[] encoded;
+    private final Base64.Encoder encoder = Base64.getEncoder();
+    private final Runnable onClose;
+    private int position;
+    private int limit;
+    private boolean eof;
+    private boolean closed;
+
+    Base64FileInputStream(Path path, int chunkSize, Runnable onClose) throws IOException {
+        int rawSize = rawChunkSize(chunkSize);
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.raw = ByteBuffer.allocate(rawSize);
+        this.encoded = new byte[encodedLength(rawSize)];
+        this.onClose = onClose;
+    }
+
+    static int rawChunkSize(int chunkSize) {
+        return Math.max(3, chunkSize - chunkSize % 3);
+    }
+
+    static long encodedLength(long size) {
+        return 4 * ((size + 2) / 3);
+    }
+
+    static int encodedLength(int size) {
+        return (int) encodedLength((long) size);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return encoded[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        int count = Math.min(length, limit - position);
+        System.arraycopy(encoded, position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        raw.clear();
+        while (raw.hasRemaining()) {
+            if (channel.read(raw) < 0) {
+                eof = true;
+                break;
+            }
+        }
+        int read = raw.position();
+        if (read == 0) {
+            return false;
+        }
+        byte[] source = read == raw.capacity() ? raw.array() : Arrays.copyOf(raw.array(), read);
+        limit = encoder.encode(source, encoded);
+        position = 0;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+        } finally {
+            onClose.run();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package br.com.ai.connector.provider;
 
 import br.com.ai.connector.dto.ProviderPayload;
 import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 
 public interface LlmProvider {
     String name();
@@ -10,6 +12,15 @@ public interface LlmProvider {
 
     String invoke(ProviderPayload payload);
 
+    default int estimateTokens(String text) {
+        return TokenEstimator.estimate(text, 4.0);
+    }
+
+    default Uni<String> invokeAsync(ProviderPayload payload) {
+        return Uni.createFrom().item(() -> invoke(payload))
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
     default Multi<String> stream(ProviderPayload payload) {
         String output = invoke(payload);
         return Multi.createFrom().iterable(output.lines().toList());
@@ -3,6 +3,9 @@ package br.com.ai.connector.provider;
 import br.com.ai.connector.dto.ProviderPayload;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.faulttolerance.api.AsynchronousNonBlocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.faulttolerance.Timeout;
@@ -14,7 +17,8 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -30,14 +34,28 @@ public class OpenAiProvider implements LlmProvider {
     @ConfigProperty(name = "provider.openai.default-model")
     String defaultModel;
 
+    @ConfigProperty(name = "provider.openai.prompt-cache-key.enabled")
+    boolean promptCacheKeyEnabled;
+
     private final HttpClient httpClient = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(20))
             .build();
 
     private final ObjectMapper objectMapper;
-
-    public OpenAiProvider(ObjectMapper objectMapper) {
+    private final SseStreamClient sseStreamClient;
+    private final AttachmentBodyPublisher attachmentBodyPublisher;
+    private final PromptCacheMetrics promptCacheMetrics;
+
+    public OpenAiProvider(
+            ObjectMapper objectMapper,
+            SseStreamClient sseStreamClient,
+            AttachmentBodyPublisher attachmentBodyPublisher,
+            PromptCacheMetrics promptCacheMetrics
+    ) {
         this.objectMapper = objectMapper;
+        this.sseStreamClient = sseStreamClient;
+        this.attachmentBodyPublisher = attachmentBodyPublisher;
+        this.promptCacheMetrics = promptCacheMetrics;
     }
 
     @Override
@@ -55,32 +73,107 @@ public class OpenAiProvider implements LlmProvider {
     @Timeout(130000)
     public String invoke(ProviderPayload payload) {
         ensureApiKey();
+        String marker = AttachmentBodyPublisher.markerFor(payload);
+        HttpRequest request = buildRequest(requestBody(buildBody(payload, marker), payload, marker), "application/json");
+        String response = send(request);
+        return parseOpenAiText(response, payload);
+    }
+
+    @Override
+    @AsynchronousNonBlocking
+    @Retry(maxRetries = 2, delay = 300)
+    @Timeout(130000)
+    public Uni<String> invokeAsync(ProviderPayload payload) {
+        return Uni.createFrom().deferred(() -> {
+            ensureApiKey();
+            String marker = AttachmentBodyPublisher.markerFor(payload);
+            HttpRequest request = buildRequest(requestBody(buildBody(payload, marker), payload, marker), "application/json");
+            return Uni.createFrom().completionStage(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                    .onItem().transform(this::readBody)
+                    .onItem().transform(body -> parseOpenAiText(body, payload));
+        });
+    }
 
-        Map<String, Object> body = new HashMap<>();
+    @Override
+    public Multi<String> stream(ProviderPayload payload) {
+        ensureApiKey();
+        String marker = AttachmentBodyPublisher.markerFor(payload);
+        Map<String, Object> body = buildBody(payload, marker);
+        body.put("stream", true);
+        HttpRequest request = buildRequest(requestBody(body, payload, marker), "text/event-stream");
+        return sseStreamClient.stream(httpClient, request, name(), "OpenAI", payload.model(),
+                event -> parseStreamDelta(event, payload));
+    }
+
+    Map<String, Object> buildBody(ProviderPayload payload, String marker) {
+        Map<String, Object> body = new LinkedHashMap<>();
         body.put("model", payload.model());
+        List<Map<String, Object>> input = new ArrayList<>(3);
+        input.add(message("system", payload.systemPrompt()));
+        if (payload.hasStableContext()) {
+            input.add(message("user", payload.stableContext()));
+        }
+        input.add(message("user", AttachmentBodyPublisher.userContent(payload, marker)));
+        body.put("input", input);
+        if (promptCacheKeyEnabled && payload.routeKey() != null) {
+            body.put("prompt_cache_key", payload.routeKey());
+        }
         body.put("temperature", payload.temperature() == null ? 0.2 : payload.temperature());
         body.put("max_output_tokens", payload.maxTokens() == null ? 1200 : payload.maxTokens());
-        body.put("input", List.of(
-                Map.of("role", "system", "content", payload.systemPrompt()),
-                Map.of("role", "user", "content", payload.userPrompt())
-        ));
+        return body;
+    }
+
+    private static Map<String, Object> message(String role, String content) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("role", role);
+        message.put("content", content);
+        return message;
+    }
 
-        String json = toJson(body);
-        HttpRequest request = HttpRequest.newBuilder()
+    private HttpRequest.BodyPublisher requestBody(Map<String, Object> body, ProviderPayload payload, String marker) {
+        if (payload.attachment() == null) {
+            return HttpRequest.BodyPublishers.ofString(toJson(body));
+        }
+        return attachmentBodyPublisher.publisher(toJson(body), payload.attachment(), marker);
+    }
+
+    private HttpRequest buildRequest(HttpRequest.BodyPublisher body, String accept) {
+        return HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl + "/v1/responses"))
                 .timeout(Duration.ofSeconds(120))
                 .header("Content-Type", "application/json")
+                .header("Accept", accept)
                 .header("Authorization", "Bearer " + apiKey)
-                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .POST(body)
                 .build();
+    }
 
-        String response = send(request);
-        return parseOpenAiText(response);
+    private String parseStreamDelta(SseEvent event, ProviderPayload payload) {
+        if ("[DONE]".equals(event.data())) {
+            return null;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(event.data());
+            String type = root.path("type").asText(event.event() == null ? "" : event.event());
+            return switch (type) {
+                case "response.output_text.delta" -> root.path("delta").asText();
+                case "response.completed" -> {
+                    recordUsage(root.path("response").path("usage"), payload);
+                    yield null;
+                }
+                case "error", "response.failed" -> throw new IllegalStateException(
+                        "OpenAI retornou erro no streaming: " + event.data());
+                default -> null;
+            };
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao interpretar evento de streaming da OpenAI", e);
+        }
     }
 
-    private String parseOpenAiText(String responseBody) {
+    String parseOpenAiText(String responseBody, ProviderPayload payload) {
         try {
             JsonNode root = objectMapper.readTree(responseBody);
+            recordUsage(root.path("usage"), payload);
             if (root.hasNonNull("output_text")) {
                 return root.get("output_text").asText();
             }
@@ -100,13 +193,16 @@ public class OpenAiProvider implements LlmProvider {
         }
     }
 
+    private void recordUsage(JsonNode usage, ProviderPayload payload) {
+        promptCacheMetrics.record(name(), payload,
+                usage.path("input_tokens").asLong(),
+                usage.path("input_tokens_details").path("cached_tokens").asLong(),
+                0);
+    }
+
     private String send(HttpRequest request) {
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() >= 300) {
-                throw new IllegalStateException("OpenAI retornou erro HTTP " + response.statusCode() + ": " + response.body());
-            }
-            return response.body();
+            return readBody(httpClient.send(request, HttpResponse.BodyHandlers.ofString()));
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Erro ao chamar OpenAI", e);
@@ -115,6 +211,13 @@ public class OpenAiProvider implements LlmProvider {
         }
     }
 
+    private String readBody(HttpResponse<String> response) {
+        if (response.statusCode() >= 300) {
+            throw new ProviderHttpException("OpenAI", response.statusCode(), response.body());
+        }
+        return response.body();
+    }
+
     private String toJson(Map<String, Object> body) {
         try {
             return objectMapper.writeValueAsString(body);
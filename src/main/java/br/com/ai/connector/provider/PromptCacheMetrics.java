@@ -0,0 +1,28 @@
+package br.com.ai.connector.provider;
+
+import br.com.ai.connector.dto.ProviderPayload;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class PromptCacheMetrics {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    void record(String providerName, ProviderPayload payload, long totalTokens, long cachedTokens, long cacheWriteTokens) {
+        if (totalTokens <= 0) {
+            return;
+        }
+        String route = payload.routeKey() == null ? "none" : payload.routeKey();
+        increment(providerName, route, "total", totalTokens);
+        increment(providerName, route, "cached", cachedTokens);
+        increment(providerName, route, "cache_write", cacheWriteTokens);
+    }
+
+    private void increment(String providerName, String route, String type, long tokens) {
+        meterRegistry.counter("connector.provider.input.tokens", "provider", providerName, "route", route, "type", type)
+                .increment(tokens);
+    }
+}
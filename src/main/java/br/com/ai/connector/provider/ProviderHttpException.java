@@ -0,0 +1,21 @@
+package br.com.ai.connector.provider;
+
+public class ProviderHttpException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public ProviderHttpException(String providerLabel, int statusCode, String body) {
+        super(providerLabel + " retornou erro HTTP " + statusCode + ": " + body);
+        this.statusCode = statusCode;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    public boolean isRetryable() {
+        return statusCode == 408 || statusCode == 409 || statusCode == 425 || statusCode == 429 || statusCode >= 500;
+    }
+}
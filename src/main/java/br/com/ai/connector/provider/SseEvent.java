@@ -0,0 +1,7 @@
+package br.com.ai.connector.provider;
+
+public record SseEvent(
+        String event,
+        String data
+) {
+}
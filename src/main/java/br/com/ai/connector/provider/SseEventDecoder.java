@@ -0,0 +1,102 @@
+package br.com.ai.connector.provider;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+final class SseEventDecoder {
+
+    private final CharsetDecoder charsetDecoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars = CharBuffer.allocate(8192);
+    private ByteBuffer pendingBytes = ByteBuffer.allocate(0);
+    private final StringBuilder line = new StringBuilder();
+    private final StringBuilder data = new StringBuilder();
+    private String eventName;
+    private boolean dataPresent;
+    private boolean lastWasCarriageReturn;
+
+    List<SseEvent> decode(List<ByteBuffer> buffers) {
+        List<SseEvent> events = new ArrayList<>();
+        for (ByteBuffer buffer : buffers) {
+            decode(buffer, events);
+        }
+        return events;
+    }
+
+    private void decode(ByteBuffer buffer, List<SseEvent> events) {
+        ByteBuffer input = pendingBytes.hasRemaining() ? concat(pendingBytes, buffer) : buffer;
+        CoderResult result;
+        do {
+            result = charsetDecoder.decode(input, chars, false);
+            chars.flip();
+            while (chars.hasRemaining()) {
+                accept(chars.get(), events);
+            }
+            chars.clear();
+        } while (result.isOverflow());
+        pendingBytes = input.hasRemaining() ? copyOf(input) : ByteBuffer.allocate(0);
+    }
+
+    private void accept(char c, List<SseEvent> events) {
+        if (c == '\n' && lastWasCarriageReturn) {
+            lastWasCarriageReturn = false;
+            return;
+        }
+        lastWasCarriageReturn = c == '\r';
+        if (c == '\n' || c == '\r') {
+            processLine(events);
+            line.setLength(0);
+        } else {
+            line.append(c);
+        }
+    }
+
+    private void processLine(List<SseEvent> events) {
+        if (line.isEmpty()) {
+            if (dataPresent) {
+                events.add(new SseEvent(eventName, data.toString()));
+            }
+            eventName = null;
+            data.setLength(0);
+            dataPresent = false;
+            return;
+        }
+        if (line.charAt(0) == ':') {
+            return;
+        }
+        int colon = line.indexOf(":");
+        String field = colon < 0 ? line.toString() : line.substring(0, colon);
+        String value = colon < 0 ? "" : line.substring(colon + 1);
+        if (value.startsWith(" ")) {
+            value = value.substring(1);
+        }
+        if ("event".equals(field)) {
+            eventName = value;
+        } else if ("data".equals(field)) {
+            if (dataPresent) {
+                data.append('\n');
+            }
+            data.append(value);
+            dataPresent = true;
+        }
+    }
+
+    private static ByteBuffer concat(ByteBuffer head, ByteBuffer tail) {
+        ByteBuffer joined = ByteBuffer.allocate(head.remaining() + tail.remaining());
+        joined.put(head).put(tail).flip();
+        return joined;
+    }
+
+    private static ByteBuffer copyOf(ByteBuffer source) {
+        ByteBuffer copy = ByteBuffer.allocate(source.remaining());
+        copy.put(source).flip();
+        return copy;
+    }
+}
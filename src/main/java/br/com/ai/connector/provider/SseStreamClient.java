@@ -0,0 +1,90 @@
+package br.com.ai.connector.provider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+@ApplicationScoped
+public class SseStreamClient {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    public Multi<String> stream(
+            HttpClient httpClient,
+            HttpRequest request,
+            String providerName,
+            String providerLabel,
+            String model,
+            Function<SseEvent, String> deltaExtractor
+    ) {
+        Timer timeToFirstToken = Timer.builder("connector.provider.time.to.first.token")
+                .tag("provider", providerName)
+                .tag("model", model)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Timer streamDuration = Timer.builder("connector.provider.stream.duration")
+                .tag("provider", providerName)
+                .tag("model", model)
+                .register(meterRegistry);
+
+        return Multi.createFrom().deferred(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean firstToken = new AtomicBoolean(true);
+            SseEventDecoder decoder = new SseEventDecoder();
+            return Uni.createFrom()
+                    .completionStage(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofPublisher()))
+                    .onItem().transformToMulti(response -> body(response, providerLabel))
+                    .onItem().transformToIterable(buffers -> deltas(decoder.decode(buffers), deltaExtractor))
+                    .onItem().invoke(delta -> {
+                        if (firstToken.compareAndSet(true, false)) {
+                            timeToFirstToken.record(Duration.ofNanos(System.nanoTime() - start));
+                        }
+                    })
+                    .onTermination().invoke(() -> streamDuration.record(Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    private Multi<List<ByteBuffer>> body(HttpResponse<Flow.Publisher<List<ByteBuffer>>> response, String providerLabel) {
+        Multi<List<ByteBuffer>> body = Multi.createFrom().publisher(response.body());
+        if (response.statusCode() < 300) {
+            return body;
+        }
+        return body
+                .collect().in(ByteArrayOutputStream::new, (out, buffers) -> buffers.forEach(buffer -> {
+                    byte[] bytes = new byte[buffer.remaining()];
+                    buffer.get(bytes);
+                    out.writeBytes(bytes);
+                }))
+                .onItem().transformToMulti(out -> Multi.createFrom().failure(new ProviderHttpException(
+                        providerLabel, response.statusCode(), out.toString(StandardCharsets.UTF_8)
+                )));
+    }
+
+    private static List<String> deltas(List<SseEvent> events, Function<SseEvent, String> deltaExtractor) {
+        List<String> deltas = new ArrayList<>(events.size());
+        for (SseEvent event : events) {
+            String delta = deltaExtractor.apply(event);
+            if (delta != null && !delta.isEmpty()) {
+                deltas.add(delta);
+            }
+        }
+        return deltas;
+    }
+}
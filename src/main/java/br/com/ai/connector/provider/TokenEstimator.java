@@ -0,0 +1,20 @@
+package br.com.ai.connector.provider;
+
+public final class TokenEstimator {
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text, double charsPerToken) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int weighted = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                weighted++;
+            }
+        }
+        return (int) Math.ceil(weighted / charsPerToken);
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.ai.connector.adapter.in.queue;
+
+import br.com.ai.connector.application.usecase.TrainingJobUseCase;
+import br.com.ai.connector.dto.TrainingMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class TrainingIngestBufferTest {
+
+    @Test
+    void shouldPersistBatchBeforeAckAndRejectPoisonIndividually() throws InterruptedException {
+        CountDownLatch settled = new CountDownLatch(3);
+        List<String> acked = new CopyOnWriteArrayList<>();
+        List<String> nacked = new CopyOnWriteArrayList<>();
+        RecordingTrainingJobUseCase useCase = new RecordingTrainingJobUseCase(acked);
+        TrainingIngestBuffer buffer = newBuffer(useCase);
+
+        try {
+            buffer.submit(message("{\"dataType\":\"SUPPORT\",\"dataCharacteristic\":\"FAQ\",\"content\":\"um\"}", acked, nacked, settled));
+            buffer.submit(message("{invalido", acked, nacked, settled));
+            buffer.submit(message("{\"dataType\":\"SUPPORT\",\"dataCharacteristic\":\"FAQ\",\"content\":\"dois\"}", acked, nacked, settled));
+
+            Assertions.assertTrue(settled.await(5, TimeUnit.SECONDS));
+        } finally {
+            buffer.shutdown();
+        }
+
+        Assertions.assertEquals(1, useCase.batches.size());
+        Assertions.assertEquals(2, useCase.batches.get(0).size());
+        Assertions.assertEquals(0, useCase.ackedBeforeCommit);
+        Assertions.assertEquals(2, acked.size());
+        Assertions.assertEquals(List.of("{invalido"), nacked);
+    }
+
+    private static TrainingIngestBuffer newBuffer(TrainingJobUseCase useCase) {
+        TrainingIngestBuffer buffer = new TrainingIngestBuffer();
+        buffer.trainingJobUseCase = useCase;
+        buffer.objectMapper = new ObjectMapper();
+        buffer.meterRegistry = new SimpleMeterRegistry();
+        buffer.batchSize = 3;
+        buffer.flushInterval = Duration.ofSeconds(1);
+        buffer.retryDelay = Duration.ofMillis(10);
+        buffer.shutdownTimeout = Duration.ofSeconds(1);
+        buffer.init();
+        return buffer;
+    }
+
+    private static Message<String> message(String payload, List<String> acked, List<String> nacked, CountDownLatch settled) {
+        return Message.of(payload, () -> {
+            acked.add(payload);
+            settled.countDown();
+            return CompletableFuture.completedFuture(null);
+        }, failure -> {
+            nacked.add(payload);
+            settled.countDown();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private static class RecordingTrainingJobUseCase extends TrainingJobUseCase {
+        final List<List<TrainingMessage>> batches = new CopyOnWriteArrayList<>();
+        final List<String> acked;
+        volatile int ackedBeforeCommit;
+
+        RecordingTrainingJobUseCase(List<String> acked) {
+            this.acked = acked;
+        }
+
+        @Override
+        public int enqueueAll(List<TrainingMessage> messages) {
+            ackedBeforeCommit = acked.size();
+            batches.add(List.copyOf(messages));
+            return messages.size();
+        }
+    }
+}
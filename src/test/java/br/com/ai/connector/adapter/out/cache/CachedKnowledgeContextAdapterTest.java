@@ -0,0 +1,57 @@
+package br.com.ai.connector.adapter.out.cache;
+
+import br.com.ai.connector.adapter.out.cache.ContextSnippetCache.Section;
+import br.com.ai.connector.adapter.out.oracle.OracleLlmConfigAdapter;
+import br.com.ai.connector.dto.ContextBundle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CachedKnowledgeContextAdapterTest {
+
+    @Test
+    void shouldNotCacheSectionInvalidatedWhileBundleWasLoading() {
+        ContextSnippetCache cache = newCache();
+        AtomicInteger loads = new AtomicInteger();
+        CachedKnowledgeContextAdapter adapter = new CachedKnowledgeContextAdapter();
+        adapter.snippetCache = cache;
+        adapter.oracleAdapter = new OracleLlmConfigAdapter() {
+            @Override
+            public ContextBundle loadContextBundle(long routeId, String moduleKey, String profileId,
+                                                   int routeLimit, int moduleLimit, int profileLimit) {
+                if (loads.incrementAndGet() == 1) {
+                    cache.invalidate(Section.MODULE, "7", "FINANCE");
+                    return new ContextBundle(List.of("rota"), List.of("modulo antigo"), List.of());
+                }
+                return new ContextBundle(List.of(), moduleLimit == 0 ? List.of() : List.of("modulo novo"), List.of());
+            }
+        };
+
+        adapter.loadContextBundle(7L, "FINANCE", null, 5, 5, 5);
+        ContextBundle second = adapter.loadContextBundle(7L, "FINANCE", null, 5, 5, 5);
+        ContextBundle third = adapter.loadContextBundle(7L, "FINANCE", null, 5, 5, 5);
+
+        Assertions.assertEquals(List.of("rota"), second.routeSnippets());
+        Assertions.assertEquals(List.of("modulo novo"), second.moduleSnippets());
+        Assertions.assertEquals(List.of("modulo novo"), third.moduleSnippets());
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    private ContextSnippetCache newCache() {
+        ContextSnippetCache cache = new ContextSnippetCache();
+        cache.meterRegistry = new SimpleMeterRegistry();
+        cache.enabled = true;
+        cache.maxSize = new MemorySize(BigInteger.valueOf(1024 * 1024));
+        cache.routeTtl = Duration.ofMinutes(10);
+        cache.moduleTtl = Duration.ofMinutes(5);
+        cache.profileTtl = Duration.ofMinutes(2);
+        cache.init();
+        return cache;
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.ai.connector.adapter.out.cache;
+
+import br.com.ai.connector.adapter.out.cache.ContextSnippetCache.Section;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+
+class ContextSnippetCacheTest {
+
+    @Test
+    void shouldNotKeepSnippetsLoadedBeforeInvalidation() {
+        ContextSnippetCache cache = newCache(1024 * 1024);
+
+        List<String> first = cache.get(Section.MODULE, "1", "FINANCE", 5, limit -> {
+            cache.invalidate(Section.MODULE, "1", "FINANCE");
+            return List.of("regra antiga");
+        });
+        List<String> second = cache.get(Section.MODULE, "1", "FINANCE", 5, limit -> List.of("regra nova"));
+        List<String> third = cache.get(Section.MODULE, "1", "FINANCE", 5, limit -> List.of("nao deveria carregar"));
+
+        Assertions.assertEquals(List.of("regra antiga"), first);
+        Assertions.assertEquals(List.of("regra nova"), second);
+        Assertions.assertEquals(List.of("regra nova"), third);
+    }
+
+    @Test
+    void shouldDiscardPutWithStaleGeneration() {
+        ContextSnippetCache cache = newCache(1024 * 1024);
+
+        long generation = cache.generation(Section.PROFILE, "aluno-1", "GENERAL");
+        cache.invalidate(Section.PROFILE, "aluno-1", "GENERAL");
+        cache.put(Section.PROFILE, "aluno-1", "GENERAL", 5, List.of("perfil antigo"), generation);
+
+        Assertions.assertNull(cache.peek(Section.PROFILE, "aluno-1", "GENERAL", 5));
+    }
+
+    @Test
+    void shouldWeighEntriesByStringBytesAndEvictOverMaxSize() {
+        ContextSnippetCache cache = newCache(1000);
+
+        cache.put(Section.ROUTE, "1", null, 5, List.of("abcd", "ef"), cache.generation(Section.ROUTE, "1", null));
+        Assertions.assertEquals(64 + 40 + 8 + 40 + 4, cache.weightedBytes());
+
+        cache.put(Section.ROUTE, "2", null, 5, List.of("x".repeat(600)), cache.generation(Section.ROUTE, "2", null));
+        Assertions.assertTrue(cache.weightedBytes() <= 1000);
+    }
+
+    private ContextSnippetCache newCache(long maxBytes) {
+        ContextSnippetCache cache = new ContextSnippetCache();
+        cache.meterRegistry = new SimpleMeterRegistry();
+        cache.enabled = true;
+        cache.maxSize = new MemorySize(BigInteger.valueOf(maxBytes));
+        cache.routeTtl = Duration.ofMinutes(10);
+        cache.moduleTtl = Duration.ofMinutes(5);
+        cache.profileTtl = Duration.ofMinutes(2);
+        cache.init();
+        return cache;
+    }
+}
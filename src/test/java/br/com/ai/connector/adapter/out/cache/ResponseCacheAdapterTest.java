@@ -0,0 +1,31 @@
+package br.com.ai.connector.adapter.out.cache;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+
+class ResponseCacheAdapterTest {
+
+    @Test
+    void shouldExposeHitsAndMissesUnderTheSameMeterInPrometheus() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        ResponseCacheAdapter adapter = new ResponseCacheAdapter();
+        adapter.meterRegistry = registry;
+        adapter.maxSize = new MemorySize(BigInteger.valueOf(1024 * 1024));
+        adapter.persistentEnabled = false;
+        adapter.init();
+
+        Assertions.assertTrue(adapter.find("chave", "SUPPORT_FAQ").isEmpty());
+        adapter.store("chave", "SUPPORT_FAQ", "OPENAI", "gpt-5", "resposta", Duration.ofMinutes(5));
+        Assertions.assertEquals("resposta", adapter.find("chave", "SUPPORT_FAQ").orElseThrow());
+
+        String scrape = registry.scrape();
+        Assertions.assertTrue(scrape.contains("connector_response_cache_requests_total{result=\"miss\",route=\"SUPPORT_FAQ\",tier=\"none\""), scrape);
+        Assertions.assertTrue(scrape.contains("connector_response_cache_requests_total{result=\"hit\",route=\"SUPPORT_FAQ\",tier=\"memory\""), scrape);
+    }
+}
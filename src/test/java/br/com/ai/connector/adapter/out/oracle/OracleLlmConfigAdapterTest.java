@@ -0,0 +1,271 @@
+package br.com.ai.connector.adapter.out.oracle;
+
+import br.com.ai.connector.dto.ContextBundle;
+import br.com.ai.connector.dto.TrainingMessage;
+import br.com.ai.connector.dto.TrainingQueueItem;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+class OracleLlmConfigAdapterTest {
+
+    @Test
+    void shouldSplitCombinedRowsIntoSectionsInOrder() {
+        ScriptedJdbc jdbc = new ScriptedJdbc(List.of(
+                new Object[]{1, "rota 1"},
+                new Object[]{1, "rota 2"},
+                new Object[]{2, "modulo 1"},
+                new Object[]{3, "perfil 1"},
+                new Object[]{3, "perfil 2"}
+        ));
+        OracleLlmConfigAdapter adapter = new OracleLlmConfigAdapter();
+        adapter.dataSource = jdbc.dataSource();
+
+        ContextBundle bundle = adapter.loadContextBundle(7L, "FINANCE", "aluno-1", 2, 3, 4);
+
+        Assertions.assertEquals(List.of("rota 1", "rota 2"), bundle.routeSnippets());
+        Assertions.assertEquals(List.of("modulo 1"), bundle.moduleSnippets());
+        Assertions.assertEquals(List.of("perfil 1", "perfil 2"), bundle.profileSnippets());
+        Assertions.assertEquals(7L, jdbc.parameters.get(1));
+        Assertions.assertEquals(2, jdbc.parameters.get(2));
+        Assertions.assertEquals("FINANCE", jdbc.parameters.get(4));
+        Assertions.assertEquals(3, jdbc.parameters.get(5));
+        Assertions.assertEquals("aluno-1", jdbc.parameters.get(6));
+        Assertions.assertEquals("FINANCE", jdbc.parameters.get(7));
+        Assertions.assertEquals(4, jdbc.parameters.get(8));
+        Assertions.assertEquals(9, jdbc.fetchSize);
+    }
+
+    @Test
+    void shouldZeroLimitsForMissingModuleAndProfile() {
+        ScriptedJdbc jdbc = new ScriptedJdbc(List.<Object[]>of(new Object[]{1, "rota 1"}));
+        OracleLlmConfigAdapter adapter = new OracleLlmConfigAdapter();
+        adapter.dataSource = jdbc.dataSource();
+
+        ContextBundle bundle = adapter.loadContextBundle(7L, null, " ", 5, 3, 4);
+
+        Assertions.assertEquals(List.of("rota 1"), bundle.routeSnippets());
+        Assertions.assertTrue(bundle.moduleSnippets().isEmpty());
+        Assertions.assertTrue(bundle.profileSnippets().isEmpty());
+        Assertions.assertEquals(5, jdbc.parameters.get(2));
+        Assertions.assertEquals(0, jdbc.parameters.get(5));
+        Assertions.assertEquals("GENERAL", jdbc.parameters.get(7));
+        Assertions.assertEquals(0, jdbc.parameters.get(8));
+    }
+
+    @Test
+    void shouldTreatUniqueViolationOnContextAsDuplicate() {
+        ScriptedJdbc jdbc = new ScriptedJdbc(List.of());
+        jdbc.updates.add(uniqueViolation());
+        jdbc.updates.add(1);
+        OracleLlmConfigAdapter adapter = new OracleLlmConfigAdapter();
+        adapter.dataSource = jdbc.dataSource();
+
+        Assertions.assertFalse(adapter.saveModuleContext(7L, "FINANCE", "texto", "hash", "TRAINING"));
+        Assertions.assertTrue(adapter.saveProfileContext("aluno-1", "FINANCE", "texto", "hash", "TRAINING"));
+    }
+
+    @Test
+    void shouldRetryBatchRowByRowAfterConcurrentEnqueue() {
+        ScriptedJdbc jdbc = new ScriptedJdbc(List.of());
+        jdbc.batchFailure = new BatchUpdateException("ORA-00001", "23000", 1, new int[0], null);
+        jdbc.updates.add(uniqueViolation());
+        jdbc.updates.add(1);
+        OracleLlmConfigAdapter adapter = new OracleLlmConfigAdapter();
+        adapter.dataSource = jdbc.dataSource();
+        Map<String, TrainingMessage> messages = new LinkedHashMap<>();
+        messages.put("hash-1", message("primeiro"));
+        messages.put("hash-2", message("segundo"));
+
+        Assertions.assertEquals(1, adapter.enqueueTrainingItems(messages));
+        Assertions.assertEquals(1, jdbc.rollbacks);
+        Assertions.assertEquals(1, jdbc.commits);
+        Assertions.assertEquals("hash-2", jdbc.parameters.get(1));
+    }
+
+    @Test
+    void shouldPropagateOtherBatchFailures() {
+        ScriptedJdbc jdbc = new ScriptedJdbc(List.of());
+        jdbc.batchFailure = new BatchUpdateException("ORA-01400", "23000", 1400, new int[0], null);
+        OracleLlmConfigAdapter adapter = new OracleLlmConfigAdapter();
+        adapter.dataSource = jdbc.dataSource();
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> adapter.enqueueTrainingItems(Map.of("hash-1", message("primeiro"))));
+        Assertions.assertEquals(0, jdbc.commits);
+    }
+
+    @Test
+    void shouldClaimPendingItemsWithLeaseOwnedByNode() {
+        ScriptedJdbc jdbc = new ScriptedJdbc(List.<Object[]>of(
+                new Object[]{7L, "SUPPORT", "FAQ", "conteudo", "SUPPORT_DEFAULT", "FINANCE", "aluno-1", "JOB", 2}
+        ));
+        jdbc.columns = List.of("id", "data_type", "data_characteristic", "content", "route_key", "module_key",
+                "profile_id", "source_type", "attempts");
+        OracleLlmConfigAdapter adapter = trainingAdapter(jdbc);
+
+        List<TrainingQueueItem> items = adapter.claimPendingTrainingItems(5);
+
+        Assertions.assertEquals(1, items.size());
+        Assertions.assertEquals(7L, items.get(0).id());
+        Assertions.assertEquals(3, items.get(0).attempt());
+        Assertions.assertTrue(jdbc.statements.get(0).contains("FOR UPDATE SKIP LOCKED"));
+        Assertions.assertTrue(jdbc.statements.get(1).contains("attempts = attempts + 1"));
+        Assertions.assertEquals(5, jdbc.fetchSize);
+        Assertions.assertEquals(List.of(Map.of(1, "no-1", 2, 600L, 3, 7L)), jdbc.batches);
+        Assertions.assertEquals(1, jdbc.commits);
+    }
+
+    @Test
+    void shouldRenewLeaseOnlyForRowsStillOwnedByNode() {
+        ScriptedJdbc jdbc = new ScriptedJdbc(List.of());
+        OracleLlmConfigAdapter adapter = trainingAdapter(jdbc);
+
+        adapter.renewTrainingLeases(List.of(7L, 8L));
+
+        String sql = jdbc.statements.get(0);
+        Assertions.assertTrue(sql.contains("lease_expires_at = SYSTIMESTAMP + NUMTODSINTERVAL(?, 'SECOND')"));
+        Assertions.assertTrue(sql.contains("status = 'PROCESSING'") && sql.contains("owner_node = ?"));
+        Assertions.assertEquals(List.of(Map.of(1, 600L, 2, 7L, 3, "no-1"), Map.of(1, 600L, 2, 8L, 3, "no-1")), jdbc.batches);
+    }
+
+    @Test
+    void shouldMoveExpiredLeasesOnLastAttemptToDeadAndRequeueTheRest() {
+        ScriptedJdbc jdbc = new ScriptedJdbc(List.of());
+        jdbc.updates.add(2);
+        jdbc.updates.add(3);
+        OracleLlmConfigAdapter adapter = trainingAdapter(jdbc);
+
+        Assertions.assertEquals(3, adapter.releaseExpiredTrainingLeases());
+        Assertions.assertTrue(jdbc.statements.get(0).contains("SET status = 'DEAD'"));
+        Assertions.assertTrue(jdbc.statements.get(0).contains("attempts >= ?"));
+        Assertions.assertEquals(6, jdbc.parameters.get(1));
+        Assertions.assertTrue(jdbc.statements.get(1).contains("SET status = 'PENDING'"));
+        Assertions.assertEquals(1, jdbc.commits);
+    }
+
+    private static OracleLlmConfigAdapter trainingAdapter(ScriptedJdbc jdbc) {
+        OracleLlmConfigAdapter adapter = new OracleLlmConfigAdapter();
+        adapter.dataSource = jdbc.dataSource();
+        adapter.configuredNodeId = Optional.of("no-1");
+        adapter.trainingLease = Duration.ofMinutes(10);
+        adapter.trainingMaxAttempts = 6;
+        adapter.init();
+        return adapter;
+    }
+
+    private static SQLException uniqueViolation() {
+        return new SQLException("ORA-00001: restricao exclusiva violada", "23000", 1);
+    }
+
+    private static TrainingMessage message(String content) {
+        return new TrainingMessage("SUPPORT", "*", content, "SUPPORT_DEFAULT", "FINANCE", "aluno-1", "TRAINING");
+    }
+
+    private static final class ScriptedJdbc {
+
+        private final List<Object[]> rows;
+        private final Map<Integer, Object> parameters = new HashMap<>();
+        private final Deque<Object> updates = new ArrayDeque<>();
+        private final List<String> statements = new ArrayList<>();
+        private final List<Map<Integer, Object>> batches = new ArrayList<>();
+        private List<String> columns;
+        private SQLException batchFailure;
+        private int fetchSize;
+        private int commits;
+        private int rollbacks;
+
+        private ScriptedJdbc(List<Object[]> rows) {
+            this.rows = rows;
+        }
+
+        DataSource dataSource() {
+            return proxy(DataSource.class, (method, args) -> method.equals("getConnection") ? connection() : null);
+        }
+
+        private Connection connection() {
+            return proxy(Connection.class, (method, args) -> switch (method) {
+                case "prepareStatement" -> {
+                    statements.add((String) args[0]);
+                    yield statement();
+                }
+                case "getAutoCommit" -> true;
+                case "commit" -> ++commits;
+                case "rollback" -> ++rollbacks;
+                default -> null;
+            });
+        }
+
+        private PreparedStatement statement() {
+            return proxy(PreparedStatement.class, (method, args) -> {
+                switch (method) {
+                    case "setLong", "setInt", "setString" -> parameters.put((Integer) args[0], args[1]);
+                    case "setFetchSize" -> fetchSize = (Integer) args[0];
+                    case "addBatch" -> batches.add(new HashMap<>(parameters));
+                    case "executeQuery" -> {
+                        return resultSet();
+                    }
+                    case "executeUpdate" -> {
+                        Object result = updates.poll();
+                        if (result instanceof SQLException e) {
+                            throw e;
+                        }
+                        return result;
+                    }
+                    case "executeBatch" -> {
+                        if (batchFailure != null) {
+                            throw batchFailure;
+                        }
+                        return new int[]{1};
+                    }
+                    default -> {
+                    }
+                }
+                return null;
+            });
+        }
+
+        private ResultSet resultSet() {
+            Iterator<Object[]> iterator = rows.iterator();
+            Object[][] current = new Object[1][];
+            return proxy(ResultSet.class, (method, args) -> switch (method) {
+                case "next" -> {
+                    current[0] = iterator.hasNext() ? iterator.next() : null;
+                    yield current[0] != null;
+                }
+                case "getInt", "getLong", "getString" -> columns != null
+                        ? current[0][columns.indexOf((String) args[0])]
+                        : current[0]["getString".equals(method) ? 1 : 0];
+                default -> null;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, Handler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (instance, method, args) -> handler.handle(method.getName(), args));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(String method, Object[] args) throws SQLException;
+    }
+}
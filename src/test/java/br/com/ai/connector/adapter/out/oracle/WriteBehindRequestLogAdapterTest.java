@@ -0,0 +1,210 @@
+package br.com.ai.connector.adapter.out.oracle;
+
+import br.com.ai.connector.adapter.out.oracle.WriteBehindRequestLogAdapter.OverflowPolicy;
+import br.com.ai.connector.dto.RequestLogEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class WriteBehindRequestLogAdapterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecordingOracle oracle = new RecordingOracle();
+
+    @Test
+    void shouldDropOverflowAndDrainBufferOnShutdown() {
+        WriteBehindRequestLogAdapter adapter = newAdapter(OverflowPolicy.DROP, 2);
+        adapter.init();
+
+        save(adapter, 3);
+        adapter.shutdown();
+
+        Assertions.assertEquals(2, oracle.written.size());
+        Assertions.assertEquals(1.0, entries("dropped"));
+        Assertions.assertEquals(2.0, entries("written"));
+    }
+
+    @Test
+    void shouldWaitForFlusherUnderBlockPolicyAndDropAfterTimeout() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        oracle.gate = release;
+        WriteBehindRequestLogAdapter adapter = newAdapter(OverflowPolicy.BLOCK, 1);
+        adapter.batchSize = 1;
+        adapter.blockTimeout = Duration.ofMillis(100);
+        adapter.init();
+
+        save(adapter, 1);
+        Assertions.assertTrue(oracle.entered.await(5, TimeUnit.SECONDS));
+        save(adapter, 2);
+        release.countDown();
+        adapter.shutdown();
+
+        Assertions.assertEquals(1.0, entries("dropped"));
+        Assertions.assertEquals(2, oracle.written.size());
+    }
+
+    @Test
+    void shouldSpillOverflowToFileAndReplayIt() throws Exception {
+        WriteBehindRequestLogAdapter adapter = newAdapter(OverflowPolicy.SPILL, 1);
+        adapter.init();
+
+        save(adapter, 2);
+
+        Assertions.assertEquals(1.0, entries("spilled"));
+        Assertions.assertEquals(1, Files.readAllLines(tempDir.resolve("log.spill.jsonl")).size());
+        adapter.shutdown();
+        adapter.replaySpillFile();
+        Assertions.assertEquals(2, oracle.written.size());
+        Assertions.assertFalse(Files.exists(tempDir.resolve("log.spill.jsonl")));
+    }
+
+    @Test
+    void shouldBackOffFailedReplayWithoutResendingWrittenBatches() throws Exception {
+        WriteBehindRequestLogAdapter adapter = newAdapter(OverflowPolicy.SPILL, 10);
+        adapter.enabled = false;
+        adapter.batchSize = 2;
+        adapter.flushInterval = Duration.ofMillis(200);
+        adapter.init();
+        writeSpillFile(3);
+        oracle.failFromCall = 2;
+
+        adapter.replaySpillFile();
+        adapter.replaySpillFile();
+
+        Assertions.assertEquals(2, oracle.calls.get());
+        Assertions.assertEquals(2, oracle.written.size());
+        Assertions.assertTrue(Files.exists(tempDir.resolve("log.spill.jsonl.replay")));
+
+        oracle.failFromCall = Integer.MAX_VALUE;
+        Thread.sleep(300);
+        adapter.replaySpillFile();
+
+        Assertions.assertEquals(List.of("rota-0", "rota-1", "rota-2"),
+                oracle.written.stream().map(RequestLogEntry::routeKey).toList());
+        Assertions.assertFalse(Files.exists(tempDir.resolve("log.spill.jsonl.replay")));
+    }
+
+    @Test
+    void shouldReplaySpillAfterSuccessfulFlushWithoutWaitingForEmptyBuffer() throws Exception {
+        writeSpillFile(2);
+        WriteBehindRequestLogAdapter adapter = newAdapter(OverflowPolicy.SPILL, 10);
+        adapter.batchSize = 1;
+        adapter.init();
+
+        adapter.saveRequestLog("rota-nova", "OPENAI", "gpt-5", "pergunta", "resposta");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (oracle.written.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        Assertions.assertEquals(List.of("rota-nova", "rota-0", "rota-1"),
+                oracle.written.stream().map(RequestLogEntry::routeKey).toList());
+        Assertions.assertFalse(Files.exists(tempDir.resolve("log.spill.jsonl.replay")));
+        adapter.shutdown();
+    }
+
+    @Test
+    void shouldCapReplayedBatchesPerCall() throws Exception {
+        writeSpillFile(5);
+        WriteBehindRequestLogAdapter adapter = newAdapter(OverflowPolicy.SPILL, 10);
+        adapter.enabled = false;
+        adapter.batchSize = 1;
+        adapter.replayMaxBatches = 2;
+        adapter.init();
+
+        adapter.replaySpillFile();
+        Assertions.assertEquals(2, oracle.written.size());
+        adapter.replaySpillFile();
+        Assertions.assertEquals(4, oracle.written.size());
+        Assertions.assertTrue(Files.exists(tempDir.resolve("log.spill.jsonl.replay")));
+        adapter.replaySpillFile();
+
+        Assertions.assertEquals(List.of("rota-0", "rota-1", "rota-2", "rota-3", "rota-4"),
+                oracle.written.stream().map(RequestLogEntry::routeKey).toList());
+        Assertions.assertFalse(Files.exists(tempDir.resolve("log.spill.jsonl.replay")));
+    }
+
+    private void writeSpillFile(int count) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add(objectMapper.writeValueAsString(entry(i)));
+        }
+        Files.write(tempDir.resolve("log.spill.jsonl"), lines);
+    }
+
+    private WriteBehindRequestLogAdapter newAdapter(OverflowPolicy policy, int capacity) {
+        WriteBehindRequestLogAdapter adapter = new WriteBehindRequestLogAdapter();
+        adapter.oracleAdapter = oracle;
+        adapter.objectMapper = objectMapper;
+        adapter.meterRegistry = meterRegistry;
+        adapter.enabled = true;
+        adapter.capacity = capacity;
+        adapter.batchSize = 100;
+        adapter.flushInterval = Duration.ofHours(1);
+        adapter.overflowPolicy = policy;
+        adapter.blockTimeout = Duration.ofMillis(200);
+        adapter.spillFilePath = tempDir.resolve("log.spill.jsonl").toString();
+        adapter.shutdownTimeout = Duration.ofSeconds(5);
+        adapter.replayMaxBackoff = Duration.ofMinutes(5);
+        adapter.replayMaxBatches = Integer.MAX_VALUE;
+        return adapter;
+    }
+
+    private void save(WriteBehindRequestLogAdapter adapter, int count) {
+        for (int i = 0; i < count; i++) {
+            adapter.saveRequestLog("rota-" + i, "OPENAI", "gpt-5", "pergunta", "resposta");
+        }
+    }
+
+    private double entries(String outcome) {
+        return meterRegistry.counter("connector.request.log.entries", "outcome", outcome).count();
+    }
+
+    private static RequestLogEntry entry(int index) {
+        return new RequestLogEntry("rota-" + index, "OPENAI", "gpt-5", "pergunta", "resposta", Instant.now());
+    }
+
+    private static final class RecordingOracle extends OracleLlmConfigAdapter {
+
+        private final List<RequestLogEntry> written = new CopyOnWriteArrayList<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private volatile CountDownLatch gate;
+        private volatile int failFromCall = Integer.MAX_VALUE;
+
+        @Override
+        public void saveRequestLogs(List<RequestLogEntry> entries) {
+            entered.countDown();
+            if (calls.incrementAndGet() >= failFromCall) {
+                throw new IllegalStateException("Oracle indisponivel");
+            }
+            CountDownLatch current = gate;
+            if (current != null) {
+                try {
+                    current.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            written.addAll(entries);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package br.com.ai.connector.adapter.out.queue;
+
+import br.com.ai.connector.dto.ConnectorEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+class RabbitEventPublisherAdapterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldRejectEventsBeyondCapacityAndDrainBacklogOnShutdown() {
+        FakeEmitter emitter = new FakeEmitter(payload -> CompletableFuture.completedFuture(null));
+        RabbitEventPublisherAdapter adapter = newAdapter(emitter);
+        adapter.capacity = 2;
+        adapter.linger = Duration.ofMinutes(1);
+        adapter.init();
+
+        for (int i = 0; i < 3; i++) {
+            adapter.publish(event(i));
+        }
+        Assertions.assertEquals(2.0, meterRegistry.get("connector.events.backlog").gauge().value());
+        Assertions.assertEquals(1.0, counter("dropped"));
+        Assertions.assertTrue(emitter.sent.isEmpty());
+
+        adapter.shutdown();
+
+        Assertions.assertEquals(2, emitter.sent.size());
+        Assertions.assertEquals(2.0, counter("published"));
+        Assertions.assertEquals(1.0, counter("dropped"));
+        Assertions.assertEquals(0.0, meterRegistry.get("connector.events.backlog").gauge().value());
+    }
+
+    @Test
+    void shouldRetryNackedEventUpToMaxRetriesAndThenDropIt() {
+        FakeEmitter emitter = new FakeEmitter(payload -> CompletableFuture.failedFuture(new IllegalStateException("nack")));
+        RabbitEventPublisherAdapter adapter = newAdapter(emitter);
+        adapter.maxRetries = 2;
+        adapter.init();
+
+        adapter.publish(event(1));
+        adapter.shutdown();
+
+        Assertions.assertEquals(3, emitter.sent.size());
+        Assertions.assertEquals(1, emitter.sent.stream().distinct().count());
+        Assertions.assertEquals(2.0, counter("retried"));
+        Assertions.assertEquals(1.0, counter("dropped"));
+        Assertions.assertEquals(0.0, counter("published"));
+    }
+
+    @Test
+    void shouldNotExceedMaxInFlightUnconfirmedSends() throws Exception {
+        List<CompletableFuture<Void>> pending = new CopyOnWriteArrayList<>();
+        FakeEmitter emitter = new FakeEmitter(payload -> {
+            CompletableFuture<Void> confirm = new CompletableFuture<>();
+            pending.add(confirm);
+            return confirm;
+        });
+        RabbitEventPublisherAdapter adapter = newAdapter(emitter);
+        adapter.batchSize = 1;
+        adapter.maxInFlight = 2;
+        adapter.init();
+
+        for (int i = 0; i < 5; i++) {
+            adapter.publish(event(i));
+        }
+        awaitSent(emitter, 2);
+        TimeUnit.MILLISECONDS.sleep(100);
+        Assertions.assertEquals(2, emitter.sent.size());
+        Assertions.assertEquals(2.0, meterRegistry.get("connector.events.in.flight").gauge().value());
+
+        for (int confirmed = 0; confirmed < 5; confirmed++) {
+            awaitSent(emitter, Math.min(confirmed + 2, 5));
+            pending.get(confirmed).complete(null);
+        }
+        adapter.shutdown();
+
+        Assertions.assertEquals(5, emitter.sent.size());
+        Assertions.assertEquals(5.0, counter("published"));
+    }
+
+    @Test
+    void shouldAccountForEventNackedWhileShuttingDown() throws Exception {
+        CompletableFuture<Void> firstConfirm = new CompletableFuture<>();
+        FakeEmitter emitter = new FakeEmitter(payload -> firstConfirm);
+        RabbitEventPublisherAdapter adapter = newAdapter(emitter);
+        adapter.maxRetries = 1;
+        adapter.init();
+
+        adapter.publish(event(1));
+        awaitSent(emitter, 1);
+        emitter.reply = payload -> CompletableFuture.completedFuture(null);
+        Thread stopping = Thread.ofPlatform().start(adapter::shutdown);
+        TimeUnit.MILLISECONDS.sleep(100);
+        firstConfirm.completeExceptionally(new IllegalStateException("nack"));
+        stopping.join(TimeUnit.SECONDS.toMillis(10));
+
+        Assertions.assertFalse(stopping.isAlive());
+        Assertions.assertEquals(1.0, counter("published") + counter("dropped"));
+    }
+
+    private RabbitEventPublisherAdapter newAdapter(FakeEmitter emitter) {
+        RabbitEventPublisherAdapter adapter = new RabbitEventPublisherAdapter();
+        adapter.eventEmitter = emitter;
+        adapter.objectMapper = new ObjectMapper().findAndRegisterModules();
+        adapter.meterRegistry = meterRegistry;
+        adapter.capacity = 100;
+        adapter.batchSize = 10;
+        adapter.linger = Duration.ofMillis(5);
+        adapter.maxInFlight = 8;
+        adapter.maxRetries = 0;
+        adapter.shutdownTimeout = Duration.ofSeconds(5);
+        return adapter;
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get("connector.events." + name).counter().count();
+    }
+
+    private static void awaitSent(FakeEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.sent.size() < count && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        Assertions.assertTrue(emitter.sent.size() >= count, "envios: " + emitter.sent.size());
+    }
+
+    private static ConnectorEvent event(int index) {
+        return new ConnectorEvent("INFERENCE", "route-" + index, "openai", "gpt", "OK", null, Instant.EPOCH);
+    }
+
+    private static final class FakeEmitter implements Emitter<String> {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private volatile Function<String, CompletionStage<Void>> reply;
+
+        private FakeEmitter(Function<String, CompletionStage<Void>> reply) {
+            this.reply = reply;
+        }
+
+        @Override
+        public CompletionStage<Void> send(String payload) {
+            sent.add(payload);
+            return reply.apply(payload);
+        }
+
+        @Override
+        public <M extends Message<? extends String>> void send(M message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void complete() {
+        }
+
+        @Override
+        public void error(Exception e) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean hasRequests() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package br.com.ai.connector.adapter.out.retrieval;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class Bm25ContextIndexTest {
+
+    private static final String PARTITION = "ROUTE|7";
+
+    @Test
+    void shouldRankByBm25WithPortugueseStemming() {
+        Bm25ContextIndex index = newIndex(100);
+        index.index(PARTITION, List.of(
+                "Reembolsos sao aprovados em ate 7 dias uteis",
+                "O aluno pode trancar a matricula uma vez por semestre",
+                "Descontos de matricula para irmaos e bolsistas",
+                "Matriculas atrasadas pagam multa de 2%"
+        ));
+
+        List<String> result = index.search(PARTITION, "Qual a multa para matrícula atrasada?", 3);
+
+        Assertions.assertEquals("Matriculas atrasadas pagam multa de 2%", result.get(0));
+        Assertions.assertEquals(3, result.size());
+        Assertions.assertFalse(result.contains("Reembolsos sao aprovados em ate 7 dias uteis"));
+        Assertions.assertEquals(List.of("Reembolsos sao aprovados em ate 7 dias uteis"), index.search(PARTITION, "reembolso", 3));
+        Assertions.assertTrue(index.search(PARTITION, "de que o para", 3).isEmpty());
+    }
+
+    @Test
+    void shouldApplyRemovalsAndEvictOldestIncrementally() {
+        Bm25ContextIndex index = newIndex(2);
+        index.index(PARTITION, List.of("regra antiga de frequencia", "regra de notas"));
+        index.remove(PARTITION, List.of("regra de notas"));
+        index.index(PARTITION, List.of("regra de provas", "regra nova de frequencia"));
+
+        Assertions.assertEquals(List.of("regra nova de frequencia"), index.search(PARTITION, "frequencia", 5));
+        Assertions.assertTrue(index.search(PARTITION, "notas", 5).isEmpty());
+        Assertions.assertEquals(List.of("regra de provas"), index.search(PARTITION, "prova", 5));
+    }
+
+    @Test
+    void shouldStemCommonInflections() {
+        Assertions.assertEquals(PortugueseAnalyzer.stem("planta"), PortugueseAnalyzer.stem("plantas"));
+        Assertions.assertEquals(PortugueseAnalyzer.stem("licao"), PortugueseAnalyzer.stem("licoes"));
+        Assertions.assertEquals(PortugueseAnalyzer.stem("professor"), PortugueseAnalyzer.stem("professores"));
+        Assertions.assertEquals(List.of("matricul", "atrasad"), PortugueseAnalyzer.analyze("A matrícula atrasada"));
+    }
+
+    private static Bm25ContextIndex newIndex(int maxPerPartition) {
+        Bm25ContextIndex index = new Bm25ContextIndex();
+        index.meterRegistry = new SimpleMeterRegistry();
+        index.maxPerPartition = maxPerPartition;
+        index.k1 = 1.2;
+        index.b = 0.75;
+        index.latencyBudgetMicros = 500;
+        index.init();
+        return index;
+    }
+}
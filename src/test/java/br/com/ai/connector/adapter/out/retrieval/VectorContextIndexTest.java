@@ -0,0 +1,80 @@
+package br.com.ai.connector.adapter.out.retrieval;
+
+import br.com.ai.connector.adapter.out.embedding.HashingEmbeddingAdapter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class VectorContextIndexTest {
+
+    private static final String PARTITION = "MODULE|7|LEARNING";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRankSnippetsBySimilarityWithinPartition() {
+        VectorContextIndex index = newIndex(tempDir.resolve("index.bin"));
+        index.index(PARTITION, List.of(
+                "Frações equivalentes representam a mesma parte do todo",
+                "A fotossíntese converte luz em energia química nas plantas",
+                "O teorema de Pitágoras relaciona os lados do triângulo retângulo"
+        ));
+        index.index("MODULE|8|LEARNING", List.of("fotossintese em plantas aquaticas"));
+
+        List<String> result = index.search(PARTITION, "como as plantas fazem fotossintese?", 2);
+
+        Assertions.assertEquals("A fotossíntese converte luz em energia química nas plantas", result.get(0));
+        Assertions.assertTrue(result.stream().noneMatch(snippet -> snippet.contains("aquaticas")));
+        Assertions.assertTrue(index.search("PROFILE|STUDENT-1|LEARNING", "fotossintese", 2).isEmpty());
+    }
+
+    @Test
+    void shouldRestoreIndexFromSnapshot() {
+        Path file = tempDir.resolve("index.bin");
+        VectorContextIndex index = newIndex(file);
+        index.index(PARTITION, List.of("regra de desconto para alunos bolsistas", "horario de atendimento da secretaria"));
+        index.remove(PARTITION, List.of("horario de atendimento da secretaria"));
+        index.shutdown();
+
+        VectorContextIndex restored = newIndex(file);
+
+        Assertions.assertEquals(List.of("regra de desconto para alunos bolsistas"),
+                restored.search(PARTITION, "desconto bolsistas", 5));
+        Assertions.assertTrue(restored.search(PARTITION, "horario secretaria", 5).isEmpty());
+    }
+
+    @Test
+    void shouldDropStaleSnapshotRowsWhenPartitionIsReplaced() {
+        Path file = tempDir.resolve("index.bin");
+        VectorContextIndex index = newIndex(file);
+        index.index(PARTITION, List.of("regra de desconto para alunos bolsistas", "horario de atendimento da secretaria"));
+        index.shutdown();
+
+        VectorContextIndex restored = newIndex(file);
+        restored.replace(PARTITION, List.of("regra de desconto para alunos bolsistas"));
+        restored.shutdown();
+
+        Assertions.assertTrue(restored.search(PARTITION, "horario secretaria", 5).isEmpty());
+        Assertions.assertTrue(newIndex(file).search(PARTITION, "horario secretaria", 5).isEmpty());
+        Assertions.assertEquals(List.of("regra de desconto para alunos bolsistas"),
+                newIndex(file).search(PARTITION, "desconto bolsistas", 5));
+    }
+
+    private static VectorContextIndex newIndex(Path file) {
+        VectorContextIndex index = new VectorContextIndex();
+        index.embeddingPort = new HashingEmbeddingAdapter(256);
+        index.meterRegistry = new SimpleMeterRegistry();
+        index.hashTables = 8;
+        index.hashBits = 10;
+        index.minScore = 0.05;
+        index.maxPerPartition = 100;
+        index.indexFile = file.toString();
+        index.init();
+        return index;
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.ai.connector.adapter.out.routing;
+
+import br.com.ai.connector.dto.RouteConfig;
+import br.com.ai.connector.dto.RouteRule;
+import br.com.ai.connector.dto.RouteTableVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+class CompiledRouteTableTest {
+
+    private static final RouteTableVersion VERSION = new RouteTableVersion(4, Instant.parse("2026-01-01T00:00:00Z"));
+
+    @Test
+    void shouldPreferExactMatchOverWildcard() {
+        CompiledRouteTable table = CompiledRouteTable.compile(List.of(
+                rule(1L, "SUPPORT_DEFAULT", "SUPPORT", "*", 1),
+                rule(2L, "SUPPORT_FAQ", "SUPPORT", "FAQ", 50)
+        ), VERSION, Instant.now());
+
+        Assertions.assertEquals("SUPPORT_FAQ", table.resolve("SUPPORT", "FAQ").orElseThrow().routeKey());
+        Assertions.assertEquals("SUPPORT_DEFAULT", table.resolve("SUPPORT", "BUG").orElseThrow().routeKey());
+        Assertions.assertEquals("SUPPORT_DEFAULT", table.resolve("SUPPORT", null).orElseThrow().routeKey());
+    }
+
+    @Test
+    void shouldPickLowestPriorityWithinSameMatch() {
+        CompiledRouteTable table = CompiledRouteTable.compile(List.of(
+                rule(1L, "RISK_SLOW", "FINANCE", "RISK", 20),
+                rule(2L, "RISK_FAST", "FINANCE", "RISK", 5),
+                rule(3L, "FINANCE_B", "FINANCE", "*", 9),
+                rule(4L, "FINANCE_A", "FINANCE", "*", 3)
+        ), VERSION, Instant.now());
+
+        Assertions.assertEquals("RISK_FAST", table.resolve("FINANCE", "RISK").orElseThrow().routeKey());
+        Assertions.assertEquals("FINANCE_A", table.resolve("FINANCE", "OTHER").orElseThrow().routeKey());
+        Assertions.assertEquals(4, table.size());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenNoRouteMatches() {
+        CompiledRouteTable table = CompiledRouteTable.compile(List.of(
+                rule(1L, "FINANCE_RISK", "FINANCE", "RISK", 5)
+        ), VERSION, Instant.now());
+
+        Assertions.assertTrue(table.resolve("FINANCE", "AUDIT").isEmpty());
+        Assertions.assertTrue(table.resolve("SUPPORT", "RISK").isEmpty());
+        Assertions.assertTrue(table.resolve(null, "RISK").isEmpty());
+    }
+
+    @Test
+    void shouldReportAgeAgainstMaxAge() {
+        Instant loadedAt = Instant.parse("2026-01-01T00:00:00Z");
+        CompiledRouteTable table = CompiledRouteTable.compile(List.of(), VERSION, loadedAt);
+
+        Assertions.assertFalse(table.isOlderThan(Duration.ofMinutes(10), loadedAt.plusSeconds(60)));
+        Assertions.assertTrue(table.isOlderThan(Duration.ofMinutes(10), loadedAt.plusSeconds(601)));
+        Assertions.assertFalse(table.isOlderThan(Duration.ZERO, loadedAt.plusSeconds(601)));
+    }
+
+    private static RouteRule rule(long id, String routeKey, String dataType, String characteristic, int priority) {
+        return new RouteRule(
+                dataType,
+                characteristic,
+                priority,
+                new RouteConfig(id, routeKey, "OPENAI", "gpt-5", "system", 0.2, 200)
+        );
+    }
+}
@@ -0,0 +1,170 @@
+package br.com.ai.connector.application.usecase;
+
+import br.com.ai.connector.application.port.out.KnowledgeContextPort;
+import br.com.ai.connector.application.port.out.LlmProviderCatalogPort;
+import br.com.ai.connector.application.port.out.RouteConfigPort;
+import br.com.ai.connector.dto.ContextBundle;
+import br.com.ai.connector.dto.InferenceRequest;
+import br.com.ai.connector.dto.ProviderInfo;
+import br.com.ai.connector.dto.ProviderPayload;
+import br.com.ai.connector.dto.RouteConfig;
+import br.com.ai.connector.provider.LlmProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+class ContextFanOutBenchmarkTest {
+
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 40;
+    private static final long STAGE_LATENCY_MS = 15;
+
+    @Test
+    @Tag("benchmark")
+    void parallelContextLoadShouldCutPreProviderLatency() {
+        long[] serial = measure("SERIAL");
+        long[] parallel = measure("PARALLEL");
+
+        Assertions.assertTrue(percentile(parallel, 50) < percentile(serial, 50));
+        Assertions.assertTrue(percentile(parallel, 99) < percentile(serial, 99));
+    }
+
+    @Test
+    void shouldFailFastWhenStageExceedsTimeout() {
+        InferenceUseCase useCase = newUseCase("PARALLEL");
+        useCase.contextStageTimeout = Duration.ofMillis(STAGE_LATENCY_MS * 2);
+        useCase.knowledgeContextPort = new SlowKnowledgeContextPort(STAGE_LATENCY_MS * 20);
+
+        IllegalStateException ex = Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> useCase.ask("SUPPORT", "FAQ", "LEARNING", "STUDENT-1", new InferenceRequest("pergunta", null, null))
+        );
+        Assertions.assertTrue(ex.getMessage().contains("modulo"));
+    }
+
+    private long[] measure(String strategy) {
+        InferenceUseCase useCase = newUseCase(strategy);
+        InferenceRequest request = new InferenceRequest("pergunta", null, null);
+        for (int i = 0; i < WARMUP; i++) {
+            useCase.ask("SUPPORT", "FAQ", "LEARNING", "STUDENT-1", request);
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            useCase.ask("SUPPORT", "FAQ", "LEARNING", "STUDENT-1", request);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static InferenceUseCase newUseCase(String strategy) {
+        InferenceUseCase useCase = new InferenceUseCase();
+        useCase.contextLoadStrategy = strategy;
+        useCase.contextStageTimeout = Duration.ofSeconds(5);
+        useCase.meterRegistry = new SimpleMeterRegistry();
+        useCase.routeConfigPort = new RouteConfigPort() {
+            @Override
+            public Optional<RouteConfig> resolveRoute(String dataType, String characteristic) {
+                return Optional.of(new RouteConfig(1L, "SUPPORT_DEFAULT", "OPENAI", "gpt-5", "system", 0.2, 200));
+            }
+
+            @Override
+            public List<String> loadContextSnippets(long routeId, int limit) {
+                return sleepAndReturn(STAGE_LATENCY_MS, "regra");
+            }
+        };
+        useCase.knowledgeContextPort = new SlowKnowledgeContextPort(STAGE_LATENCY_MS);
+        useCase.requestLogPort = (routeKey, provider, model, requestSummary, responseSummary) -> {
+        };
+        useCase.eventPublisher = event -> {
+        };
+        useCase.providerCatalog = new LlmProviderCatalogPort() {
+            @Override
+            public LlmProvider require(String providerName) {
+                return new LlmProvider() {
+                    @Override
+                    public String name() {
+                        return "OPENAI";
+                    }
+
+                    @Override
+                    public String defaultModel() {
+                        return "gpt-5";
+                    }
+
+                    @Override
+                    public String invoke(ProviderPayload payload) {
+                        return "ok";
+                    }
+                };
+            }
+
+            @Override
+            public List<ProviderInfo> listProviders() {
+                return List.of();
+            }
+        };
+        return useCase;
+    }
+
+    private static List<String> sleepAndReturn(long millis, String snippet) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return List.of(snippet);
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static class SlowKnowledgeContextPort implements KnowledgeContextPort {
+        private final long moduleLatencyMs;
+
+        SlowKnowledgeContextPort(long moduleLatencyMs) {
+            this.moduleLatencyMs = moduleLatencyMs;
+        }
+
+        @Override
+        public ContextBundle loadContextBundle(
+                long routeId,
+                String moduleKey,
+                String profileId,
+                int routeLimit,
+                int moduleLimit,
+                int profileLimit
+        ) {
+            return new ContextBundle(List.of("regra"), sleepAndReturn(moduleLatencyMs, "modulo"), List.of("perfil"));
+        }
+
+        @Override
+        public List<String> loadModuleContext(long routeId, String moduleKey, int limit) {
+            return sleepAndReturn(moduleLatencyMs, "modulo");
+        }
+
+        @Override
+        public List<String> loadProfileContext(String profileId, String moduleKey, int limit) {
+            return sleepAndReturn(STAGE_LATENCY_MS, "perfil");
+        }
+
+        @Override
+        public boolean saveModuleContext(long routeId, String moduleKey, String contextText, String contentHash, String sourceType) {
+            return true;
+        }
+
+        @Override
+        public boolean saveProfileContext(String profileId, String moduleKey, String contextText, String contentHash, String sourceType) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.ai.connector.application.usecase;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+class DocumentChunkerTest {
+
+    @Test
+    void shouldSplitWithinBudgetAndOverlapConsecutiveChunks() {
+        StringBuilder document = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            document.append("palavra").append(i).append(i % 20 == 19 ? "\n" : " ");
+        }
+        DocumentChunker chunker = new DocumentChunker(25, 5, 4);
+
+        List<DocumentChunker.Chunk> chunks = new ArrayList<>();
+        chunker.chunks(new StringReader(document.toString())).forEachRemaining(chunks::add);
+
+        Assertions.assertTrue(chunks.size() > 1);
+        for (int i = 0; i < chunks.size(); i++) {
+            DocumentChunker.Chunk chunk = chunks.get(i);
+            Assertions.assertEquals(i, chunk.index());
+            Assertions.assertTrue(chunk.text().length() <= 100, "trecho " + i + " excede o limite");
+            if (i > 0) {
+                String previous = chunks.get(i - 1).text();
+                String firstWord = chunk.text().split("\\s+")[0];
+                Assertions.assertTrue(previous.contains(firstWord), "trecho " + i + " sem sobreposicao");
+            }
+        }
+        Assertions.assertTrue(chunks.get(chunks.size() - 1).text().contains("palavra199"));
+    }
+
+    @Test
+    void shouldReturnSingleChunkForShortDocumentAndNoneForEmpty() {
+        DocumentChunker chunker = new DocumentChunker(100, 10, 4);
+
+        List<DocumentChunker.Chunk> shortDoc = new ArrayList<>();
+        chunker.chunks(new StringReader("texto curto")).forEachRemaining(shortDoc::add);
+
+        Assertions.assertEquals(List.of(new DocumentChunker.Chunk(0, "texto curto")), shortDoc);
+        Assertions.assertFalse(chunker.chunks(new StringReader("")).hasNext());
+    }
+}
@@ -1,31 +1,347 @@
 package br.com.ai.connector.application.usecase;
 
+import br.com.ai.connector.application.port.out.ContextRetrievalPort;
 import br.com.ai.connector.application.port.out.EventPublisherPort;
 import br.com.ai.connector.application.port.out.KnowledgeContextPort;
 import br.com.ai.connector.application.port.out.LlmProviderCatalogPort;
 import br.com.ai.connector.application.port.out.RequestLogPort;
+import br.com.ai.connector.application.port.out.ResponseCachePort;
 import br.com.ai.connector.application.port.out.RouteConfigPort;
 import br.com.ai.connector.dto.ConnectorEvent;
+import br.com.ai.connector.dto.ContextBundle;
+import br.com.ai.connector.dto.FileAttachment;
 import br.com.ai.connector.dto.InferenceRequest;
 import br.com.ai.connector.dto.InferenceResponse;
 import br.com.ai.connector.dto.ProviderInfo;
 import br.com.ai.connector.dto.ProviderPayload;
 import br.com.ai.connector.dto.RouteConfig;
 import br.com.ai.connector.provider.LlmProvider;
+import br.com.ai.connector.provider.TokenEstimator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 class InferenceUseCaseTest {
 
     @Test
     void shouldResolveRouteAndInvokeProvider() {
-        InferenceUseCase useCase = new InferenceUseCase();
         AtomicReference<ConnectorEvent> eventRef = new AtomicReference<>();
+        InferenceUseCase useCase = newUseCase(eventRef);
+
+        InferenceResponse response = useCase.ask("SUPPORT", "FAQ", "LEARNING", "STUDENT-1", new InferenceRequest("pergunta", null, null));
+
+        Assertions.assertEquals("OPENAI", response.provider());
+        Assertions.assertEquals("gpt-5", response.model());
+        Assertions.assertEquals("resposta-ok", response.output());
+        Assertions.assertTrue(response.promptTokens().contextTokens() > 0);
+        Assertions.assertEquals(0, response.promptTokens().droppedSnippets());
+        Assertions.assertNotNull(eventRef.get());
+        Assertions.assertEquals("INFERENCE_COMPLETED", eventRef.get().eventType());
+    }
+
+    @Test
+    void shouldReplaceRetrievalPartitionWhenRehydrationIsDue() {
+        InferenceUseCase useCase = newUseCase(new AtomicReference<>());
+        List<String> routeRows = new CopyOnWriteArrayList<>(List.of("regra 1", "regra antiga"));
+        Map<String, List<String>> partitions = new ConcurrentHashMap<>();
+        useCase.routeConfigPort = new RouteConfigPort() {
+            @Override
+            public Optional<RouteConfig> resolveRoute(String dataType, String characteristic) {
+                return Optional.of(new RouteConfig(1L, "SUPPORT_DEFAULT", "OPENAI", "gpt-5", "system", 0.2, 200));
+            }
+
+            @Override
+            public List<String> loadContextSnippets(long routeId, int limit) {
+                return List.copyOf(routeRows);
+            }
+        };
+        useCase.contextRetrievalEngine = "BM25";
+        useCase.contextRetrievalHydrateLimit = 100;
+        useCase.contextRetrievalRehydrateEvery = Duration.ofHours(1);
+        useCase.contextRetrievalPort = new ContextRetrievalPort() {
+            @Override
+            public void index(String partition, List<String> snippets) {
+                List<String> rows = partitions.computeIfAbsent(partition, key -> new CopyOnWriteArrayList<>());
+                snippets.stream().filter(snippet -> !rows.contains(snippet)).forEach(rows::add);
+            }
+
+            @Override
+            public void remove(String partition, List<String> snippets) {
+                partitions.getOrDefault(partition, new ArrayList<>()).removeAll(snippets);
+            }
+
+            @Override
+            public void replace(String partition, List<String> snippets) {
+                partitions.put(partition, new CopyOnWriteArrayList<>(snippets));
+            }
+
+            @Override
+            public List<String> search(String partition, String query, int limit) {
+                return List.copyOf(partitions.getOrDefault(partition, List.of()));
+            }
+        };
+        InferenceRequest request = new InferenceRequest("pergunta", null, null);
+        String partition = ContextPartition.route(1L);
+
+        useCase.ask("SUPPORT", "FAQ", "LEARNING", "STUDENT-1", request);
+        routeRows.set(1, "resumo compactado");
+        useCase.ask("SUPPORT", "FAQ", "LEARNING", "STUDENT-1", request);
+
+        Assertions.assertTrue(partitions.get(partition).contains("regra antiga"));
+
+        useCase.contextRetrievalRehydrateEvery = Duration.ZERO;
+        useCase.ask("SUPPORT", "FAQ", "LEARNING", "STUDENT-1", request);
+
+        Assertions.assertEquals(List.of("resumo compactado", "regra 1"), partitions.get(partition));
+    }
+
+    @Test
+    void shouldResolveRouteAndInvokeProviderAsynchronously() {
+        AtomicReference<ConnectorEvent> eventRef = new AtomicReference<>();
+        InferenceUseCase useCase = newUseCase(eventRef);
+
+        InferenceResponse response = useCase.askAsync("SUPPORT", "FAQ", "LEARNING", "STUDENT-1", new InferenceRequest("pergunta", null, null))
+                .await().atMost(Duration.ofSeconds(5));
+
+        Assertions.assertEquals("resposta-ok", response.output());
+        Assertions.assertEquals("SUPPORT_DEFAULT", response.routeKey());
+        Assertions.assertEquals("INFERENCE_COMPLETED", eventRef.get().eventType());
+    }
+
+    @Test
+    void shouldMapReduceDocumentForMapReduceRoutes(@TempDir Path tempDir) throws IOException {
+        AtomicReference<ConnectorEvent> eventRef = new AtomicReference<>();
+        InferenceUseCase useCase = newUseCase(eventRef);
+        useCase.meterRegistry = new SimpleMeterRegistry();
+        useCase.documentChunkTokens = 10;
+        useCase.documentOverlapTokens = 2;
+        useCase.documentCharsPerToken = 4;
+        useCase.documentConcurrency = 2;
+        useCase.documentChunkMaxTokens = 100;
+        useCase.routeConfigPort = new RouteConfigPort() {
+            @Override
+            public Optional<RouteConfig> resolveRoute(String dataType, String characteristic) {
+                return Optional.of(new RouteConfig(1L, "DOCS", "OPENAI", "gpt-5", "system", 0.2, 200, "MAP_REDUCE"));
+            }
+
+            @Override
+            public List<String> loadContextSnippets(long routeId, int limit) {
+                return List.of();
+            }
+        };
+        List<ProviderPayload> calls = new CopyOnWriteArrayList<>();
+        useCase.providerCatalog = recordingCatalog(calls);
+        Path document = Files.writeString(tempDir.resolve("doc.txt"), "alfa beta gama delta epsilon zeta eta teta iota kapa lambda mi ni");
+
+        InferenceResponse response = useCase.askAsync("DOCS", "*", null, null, new InferenceRequest("resuma", null, null),
+                        new FileAttachment(document, Files.size(document)))
+                .await().atMost(Duration.ofSeconds(5));
+
+        ProviderPayload reduce = calls.get(calls.size() - 1);
+        Assertions.assertTrue(calls.size() > 2);
+        Assertions.assertNull(reduce.attachment());
+        Assertions.assertTrue(reduce.userPrompt().contains("### Trecho 1"));
+        Assertions.assertTrue(reduce.userPrompt().contains("### Trecho " + (calls.size() - 1)));
+        Assertions.assertEquals("parcial-" + calls.size(), response.output());
+    }
+
+    @Test
+    void shouldReduceOversizedPartialsHierarchicallyWithinContextWindow(@TempDir Path tempDir) throws IOException {
+        InferenceUseCase useCase = newUseCase(new AtomicReference<>());
+        useCase.documentChunkTokens = 10;
+        useCase.documentOverlapTokens = 2;
+        useCase.documentCharsPerToken = 4;
+        useCase.documentConcurrency = 2;
+        useCase.documentChunkMaxTokens = 100;
+        useCase.promptBudgetEnabled = true;
+        useCase.promptDefaultContextWindow = 500;
+        useCase.routeConfigPort = new RouteConfigPort() {
+            @Override
+            public Optional<RouteConfig> resolveRoute(String dataType, String characteristic) {
+                return Optional.of(new RouteConfig(1L, "DOCS", "OPENAI", "gpt-5", "system", 0.2, 200, "MAP_REDUCE"));
+            }
+
+            @Override
+            public List<String> loadContextSnippets(long routeId, int limit) {
+                return List.of();
+            }
+        };
+        List<ProviderPayload> calls = new CopyOnWriteArrayList<>();
+        String padding = " " + "detalhe ".repeat(40);
+        useCase.providerCatalog = recordingCatalog(calls, padding);
+        Path document = Files.writeString(tempDir.resolve("doc.txt"), "alfa beta gama delta epsilon zeta eta teta ".repeat(5));
+
+        InferenceResponse response = useCase.askAsync("DOCS", "*", null, null, new InferenceRequest("resuma", null, null),
+                        new FileAttachment(document, Files.size(document)))
+                .await().atMost(Duration.ofSeconds(5));
+
+        ProviderPayload reduce = calls.get(calls.size() - 1);
+        Assertions.assertTrue(reduce.userPrompt().contains("uma unica resposta coerente"));
+        Assertions.assertTrue(calls.stream().anyMatch(call -> call.userPrompt().contains("um unico resultado parcial")));
+        for (ProviderPayload call : calls) {
+            int inputTokens = TokenEstimator.estimate(call.systemPrompt(), 4.0) + TokenEstimator.estimate(call.userPrompt(), 4.0);
+            Assertions.assertTrue(inputTokens + call.maxTokens() <= 500, "payload excede a janela: " + inputTokens);
+        }
+        Assertions.assertEquals("parcial-" + calls.size() + padding, response.output());
+    }
+
+    @Test
+    void shouldServeRepeatedPayloadFromResponseCache() {
+        InferenceUseCase useCase = newUseCase(new AtomicReference<>());
+        useCase.responseCacheEnabled = true;
+        useCase.responseCacheMaxTemperature = 0.3;
+        useCase.routeConfigPort = new RouteConfigPort() {
+            @Override
+            public Optional<RouteConfig> resolveRoute(String dataType, String characteristic) {
+                return Optional.of(new RouteConfig(2L, "FINANCE_RISK", "OPENAI", "gpt-5", "system", 0.1, 200, "SINGLE", 60));
+            }
 
+            @Override
+            public List<String> loadContextSnippets(long routeId, int limit) {
+                return List.of();
+            }
+        };
+        Map<String, String> store = new ConcurrentHashMap<>();
+        useCase.responseCachePort = new ResponseCachePort() {
+            @Override
+            public Optional<String> find(String cacheKey, String routeKey) {
+                return Optional.ofNullable(store.get(cacheKey));
+            }
+
+            @Override
+            public void store(String cacheKey, String routeKey, String provider, String model, String output, Duration ttl) {
+                store.put(cacheKey, output);
+            }
+        };
+        List<ProviderPayload> calls = new CopyOnWriteArrayList<>();
+        useCase.providerCatalog = recordingCatalog(calls);
+        InferenceRequest request = new InferenceRequest("risco da carteira", null, null);
+
+        InferenceResponse first = useCase.ask("FINANCE", "RISK", "LEARNING", "STUDENT-1", request);
+        InferenceResponse second = useCase.askAsync("FINANCE", "RISK", "LEARNING", "STUDENT-1", request)
+                .await().atMost(Duration.ofSeconds(5));
+
+        Assertions.assertFalse(first.cached());
+        Assertions.assertTrue(second.cached());
+        Assertions.assertEquals(first.output(), second.output());
+        Assertions.assertEquals(1, calls.size());
+    }
+
+    @Test
+    void shouldCoalesceConcurrentIdenticalRequests() throws InterruptedException {
+        InferenceUseCase useCase = newUseCase(new AtomicReference<>());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        useCase.meterRegistry = registry;
+        useCase.coalescingEnabled = true;
+        CountDownLatch release = new CountDownLatch(1);
+        List<ProviderPayload> calls = new CopyOnWriteArrayList<>();
+        useCase.providerCatalog = new LlmProviderCatalogPort() {
+            @Override
+            public LlmProvider require(String providerName) {
+                return new LlmProvider() {
+                    @Override
+                    public String name() {
+                        return "OPENAI";
+                    }
+
+                    @Override
+                    public String defaultModel() {
+                        return "gpt-5";
+                    }
+
+                    @Override
+                    public String invoke(ProviderPayload payload) {
+                        calls.add(payload);
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "resposta-unica";
+                    }
+                };
+            }
+
+            @Override
+            public List<ProviderInfo> listProviders() {
+                return List.of();
+            }
+        };
+        InferenceRequest request = new InferenceRequest("pergunta", null, null);
+        int requests = 5;
+
+        List<Uni<InferenceResponse>> pending = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            pending.add(useCase.askAsync("SUPPORT", "FAQ", "LEARNING", "STUDENT-1", request).memoize().indefinitely());
+        }
+        pending.forEach(uni -> uni.subscribe().with(response -> { }, failure -> { }));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.find("connector.inference.coalesced").counter() == null
+                || registry.find("connector.inference.coalesced").counter().count() < requests - 1) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "requisicoes nao foram agrupadas");
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Uni<InferenceResponse> uni : pending) {
+            Assertions.assertEquals("resposta-unica", uni.await().atMost(Duration.ofSeconds(5)).output());
+        }
+        Assertions.assertEquals(1, calls.size());
+    }
+
+    private static LlmProviderCatalogPort recordingCatalog(List<ProviderPayload> calls) {
+        return recordingCatalog(calls, "");
+    }
+
+    private static LlmProviderCatalogPort recordingCatalog(List<ProviderPayload> calls, String padding) {
+        return new LlmProviderCatalogPort() {
+            @Override
+            public LlmProvider require(String providerName) {
+                return new LlmProvider() {
+                    @Override
+                    public String name() {
+                        return "OPENAI";
+                    }
+
+                    @Override
+                    public String defaultModel() {
+                        return "gpt-5";
+                    }
+
+                    @Override
+                    public String invoke(ProviderPayload payload) {
+                        calls.add(payload);
+                        return "parcial-" + calls.size() + padding;
+                    }
+                };
+            }
+
+            @Override
+            public List<ProviderInfo> listProviders() {
+                return List.of();
+            }
+        };
+    }
+
+    private static InferenceUseCase newUseCase(AtomicReference<ConnectorEvent> eventRef) {
+        InferenceUseCase useCase = new InferenceUseCase();
+        useCase.meterRegistry = new SimpleMeterRegistry();
         useCase.routeConfigPort = new RouteConfigPort() {
             @Override
             public Optional<RouteConfig> resolveRoute(String dataType, String characteristic) {
@@ -67,6 +383,18 @@ class InferenceUseCaseTest {
         };
         useCase.eventPublisher = eventRef::set;
         useCase.knowledgeContextPort = new KnowledgeContextPort() {
+            @Override
+            public ContextBundle loadContextBundle(
+                    long routeId,
+                    String moduleKey,
+                    String profileId,
+                    int routeLimit,
+                    int moduleLimit,
+                    int profileLimit
+            ) {
+                return new ContextBundle(List.of("regra 1", "regra 2"), List.of("modulo-a"), List.of("perfil-a"));
+            }
+
             @Override
             public List<String> loadModuleContext(long routeId, String moduleKey, int limit) {
                 return List.of("modulo-a");
@@ -78,20 +406,15 @@ class InferenceUseCaseTest {
             }
 
             @Override
-            public void saveModuleContext(long routeId, String moduleKey, String contextText, String sourceType) {
+            public boolean saveModuleContext(long routeId, String moduleKey, String contextText, String contentHash, String sourceType) {
+                return true;
             }
 
             @Override
-            public void saveProfileContext(String profileId, String moduleKey, String contextText, String sourceType) {
+            public boolean saveProfileContext(String profileId, String moduleKey, String contextText, String contentHash, String sourceType) {
+                return true;
             }
         };
-
-        InferenceResponse response = useCase.ask("SUPPORT", "FAQ", "LEARNING", "STUDENT-1", new InferenceRequest("pergunta", null, null));
-
-        Assertions.assertEquals("OPENAI", response.provider());
-        Assertions.assertEquals("gpt-5", response.model());
-        Assertions.assertEquals("resposta-ok", response.output());
-        Assertions.assertNotNull(eventRef.get());
-        Assertions.assertEquals("INFERENCE_COMPLETED", eventRef.get().eventType());
+        return useCase;
     }
 }
@@ -0,0 +1,140 @@
+package br.com.ai.connector.application.usecase;
+
+import br.com.ai.connector.application.port.out.ContextRetrievalPort;
+import br.com.ai.connector.application.port.out.KnowledgeCompactionPort;
+import br.com.ai.connector.application.port.out.LlmProviderCatalogPort;
+import br.com.ai.connector.dto.ContextCompactionTarget;
+import br.com.ai.connector.dto.ContextSnippet;
+import br.com.ai.connector.dto.ProviderInfo;
+import br.com.ai.connector.dto.ProviderPayload;
+import br.com.ai.connector.provider.LlmProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class KnowledgeCompactionUseCaseTest {
+
+    @Test
+    void shouldFoldPreviousSummaryAndOldRowsThroughRouteProvider() {
+        ContextCompactionTarget module = new ContextCompactionTarget(ContextCompactionTarget.MODULE, "7", "LEARNING", "ANTHROPIC", "claude", 20);
+        ContextCompactionTarget profile = new ContextCompactionTarget(ContextCompactionTarget.PROFILE, "STUDENT-1", "LEARNING", null, null, 15);
+        FakeCompactionPort port = new FakeCompactionPort(
+                Map.of(ContextCompactionTarget.MODULE, List.of(module), ContextCompactionTarget.PROFILE, List.of(profile)),
+                Map.of(
+                        module, List.of(
+                                new ContextSnippet(1, "resumo antigo", "SUMMARY"),
+                                new ContextSnippet(2, "regra A", "JOB"),
+                                new ContextSnippet(3, "regra B", "JOB")),
+                        profile, List.of(new ContextSnippet(9, "preferencia unica", "JOB"))
+                )
+        );
+        List<ProviderPayload> calls = new ArrayList<>();
+        Map<String, List<String>> indexed = new HashMap<>();
+        KnowledgeCompactionUseCase useCase = newUseCase(port, calls);
+        useCase.contextRetrievalPort = new ContextRetrievalPort() {
+            @Override
+            public void index(String partition, List<String> snippets) {
+                indexed.computeIfAbsent(partition, key -> new ArrayList<>()).addAll(snippets);
+            }
+
+            @Override
+            public void remove(String partition, List<String> snippets) {
+                indexed.computeIfAbsent(partition, key -> new ArrayList<>()).removeAll(snippets);
+            }
+
+            @Override
+            public void replace(String partition, List<String> snippets) {
+                indexed.put(partition, new ArrayList<>(snippets));
+            }
+
+            @Override
+            public List<String> search(String partition, String query, int limit) {
+                return List.of();
+            }
+        };
+
+        int compacted = useCase.runCompaction();
+
+        Assertions.assertEquals(1, compacted);
+        Assertions.assertEquals(1, calls.size());
+        Assertions.assertEquals("ANTHROPIC", calls.get(0).provider());
+        Assertions.assertEquals("claude", calls.get(0).model());
+        Assertions.assertTrue(calls.get(0).userPrompt().startsWith("Resumo atual:\nresumo antigo"));
+        Assertions.assertTrue(calls.get(0).userPrompt().contains("1. regra A\n2. regra B"));
+        Assertions.assertEquals(List.of(1L, 2L, 3L), port.replaced.get(module));
+        Assertions.assertFalse(port.replaced.containsKey(profile));
+        Assertions.assertEquals(List.of("resumo novo"), indexed.get(ContextPartition.of(module)));
+    }
+
+    private static KnowledgeCompactionUseCase newUseCase(KnowledgeCompactionPort port, List<ProviderPayload> calls) {
+        KnowledgeCompactionUseCase useCase = new KnowledgeCompactionUseCase();
+        useCase.compactionPort = port;
+        useCase.meterRegistry = new SimpleMeterRegistry();
+        useCase.keepLatest = 5;
+        useCase.minRows = 10;
+        useCase.maxRows = 40;
+        useCase.targetsPerRun = 10;
+        useCase.maxTokens = 1200;
+        useCase.profileProvider = "OPENAI";
+        useCase.providerCatalog = new LlmProviderCatalogPort() {
+            @Override
+            public LlmProvider require(String providerName) {
+                return new LlmProvider() {
+                    @Override
+                    public String name() {
+                        return providerName;
+                    }
+
+                    @Override
+                    public String defaultModel() {
+                        return "padrao";
+                    }
+
+                    @Override
+                    public String invoke(ProviderPayload payload) {
+                        calls.add(payload);
+                        return "resumo novo";
+                    }
+                };
+            }
+
+            @Override
+            public List<ProviderInfo> listProviders() {
+                return List.of();
+            }
+        };
+        return useCase;
+    }
+
+    private static class FakeCompactionPort implements KnowledgeCompactionPort {
+        final Map<String, List<ContextCompactionTarget>> targets;
+        final Map<ContextCompactionTarget, List<ContextSnippet>> snippets;
+        final Map<ContextCompactionTarget, List<Long>> replaced = new HashMap<>();
+
+        FakeCompactionPort(Map<String, List<ContextCompactionTarget>> targets, Map<ContextCompactionTarget, List<ContextSnippet>> snippets) {
+            this.targets = targets;
+            this.snippets = snippets;
+        }
+
+        @Override
+        public List<ContextCompactionTarget> findCompactionTargets(String scope, int keepLatest, int minCompactableRows, int limit) {
+            return targets.getOrDefault(scope, List.of());
+        }
+
+        @Override
+        public List<ContextSnippet> loadCompactableContext(ContextCompactionTarget target, int keepLatest, int maxRows) {
+            return snippets.getOrDefault(target, List.of());
+        }
+
+        @Override
+        public boolean replaceWithSummary(ContextCompactionTarget target, String summary, List<Long> supersededIds) {
+            replaced.put(target, supersededIds);
+            return true;
+        }
+    }
+}
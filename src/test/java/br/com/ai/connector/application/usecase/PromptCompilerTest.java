@@ -0,0 +1,70 @@
+package br.com.ai.connector.application.usecase;
+
+import br.com.ai.connector.dto.ContextBundle;
+import br.com.ai.connector.dto.PromptTokenReport;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class PromptCompilerTest {
+
+    private static final String LONG_SNIPPET = "regra ".repeat(200).strip();
+
+    @Test
+    void shouldFillByPriorityAndTruncateOrDropOverflow() {
+        PromptCompiler compiler = new PromptCompiler(text -> text == null ? 0 : text.length() / 4, 120, 100);
+        ContextBundle context = new ContextBundle(
+                List.of(LONG_SNIPPET),
+                List.of(LONG_SNIPPET),
+                List.of("perfil do aluno")
+        );
+
+        PromptCompiler.CompiledPrompt compiled = compiler.compile("system", "pergunta", context, 100_000, 500, PromptCompiler.StablePrefix.NONE);
+        PromptTokenReport report = compiled.report();
+
+        Assertions.assertTrue(compiled.text().contains("Contexto de perfil:\n- perfil do aluno\n"));
+        Assertions.assertTrue(compiled.text().contains("Contexto de modulo:\n- regra regra"));
+        Assertions.assertTrue(compiled.text().contains(" [...]\n"));
+        Assertions.assertFalse(compiled.text().contains("Contexto de rota"));
+        Assertions.assertTrue(compiled.text().endsWith("Pergunta do usuario:\npergunta"));
+        Assertions.assertEquals(1, report.truncatedSnippets());
+        Assertions.assertEquals(1, report.droppedSnippets());
+        Assertions.assertTrue(report.contextTokens() <= report.contextBudget());
+        Assertions.assertTrue(report.moduleTokens() <= 100);
+    }
+
+    @Test
+    void shouldShrinkBudgetToModelWindowAndRejectOversizedQuestion() {
+        PromptCompiler compiler = new PromptCompiler(text -> text == null ? 0 : text.length() / 4, 6000, 1000);
+        ContextBundle context = new ContextBundle(List.of(LONG_SNIPPET), List.of(), List.of());
+
+        PromptTokenReport report = compiler.compile("system", "pergunta", context, 400, 300, PromptCompiler.StablePrefix.NONE).report();
+
+        Assertions.assertTrue(report.contextBudget() < 100);
+        Assertions.assertTrue(report.inputTokens() + report.reservedOutputTokens() <= report.contextWindow());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> compiler.compile("system", "x".repeat(4000), context, 400, 300, PromptCompiler.StablePrefix.NONE));
+    }
+
+    @Test
+    void shouldKeepStablePrefixIndependentOfQuestion() {
+        ContextBundle context = new ContextBundle(
+                List.of("regra da rota"),
+                List.of("regra do modulo"),
+                List.of("perfil do aluno")
+        );
+
+        PromptCompiler.CompiledPrompt first = new PromptCompiler(text -> text == null ? 0 : text.length() / 4, 6000, 1000)
+                .compile("system", "primeira pergunta", context, 100_000, 500, PromptCompiler.StablePrefix.ROUTE_AND_MODULE);
+        PromptCompiler.CompiledPrompt second = new PromptCompiler(text -> text == null ? 0 : text.length() / 4, 6000, 1000)
+                .compile("system", "outra pergunta bem diferente", context, 100_000, 500, PromptCompiler.StablePrefix.ROUTE_AND_MODULE);
+
+        Assertions.assertEquals(first.stablePrefix(), second.stablePrefix());
+        Assertions.assertTrue(first.stablePrefix().contains("Contexto de rota:\n- regra da rota\n"));
+        Assertions.assertTrue(first.stablePrefix().contains("Contexto de modulo:\n- regra do modulo\n"));
+        Assertions.assertFalse(first.stablePrefix().contains("perfil"));
+        Assertions.assertTrue(first.text().contains("Contexto de perfil:\n- perfil do aluno\n"));
+        Assertions.assertTrue(first.text().endsWith("Pergunta do usuario:\nprimeira pergunta"));
+    }
+}
@@ -2,12 +2,28 @@ package br.com.ai.connector.application.usecase;
 
 import br.com.ai.connector.application.port.out.TrainingQueuePort;
 import br.com.ai.connector.dto.TrainingMessage;
+import br.com.ai.connector.dto.TrainingOutcome;
 import br.com.ai.connector.dto.TrainingQueueItem;
+import br.com.ai.connector.provider.ProviderHttpException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 class TrainingJobUseCaseTest {
 
@@ -15,7 +31,7 @@ class TrainingJobUseCaseTest {
     void shouldRejectInvalidTrainingMessage() {
         TrainingJobUseCase useCase = new TrainingJobUseCase();
         useCase.trainingQueuePort = new NoopTrainingQueuePort();
-        useCase.inferenceUseCase = new InferenceUseCase();
+        useCase.trainingKnowledgeUseCase = new TrainingKnowledgeUseCase();
 
         IllegalArgumentException ex = Assertions.assertThrows(
                 IllegalArgumentException.class,
@@ -29,7 +45,8 @@ class TrainingJobUseCaseTest {
         TrainingJobUseCase useCase = new TrainingJobUseCase();
         CapturingTrainingQueuePort queuePort = new CapturingTrainingQueuePort();
         useCase.trainingQueuePort = queuePort;
-        useCase.inferenceUseCase = new InferenceUseCase();
+        useCase.trainingKnowledgeUseCase = new TrainingKnowledgeUseCase();
+        useCase.meterRegistry = new SimpleMeterRegistry();
 
         useCase.enqueue(new TrainingMessage("SUPPORT", "FAQ", "conteudo", "SUPPORT_DEFAULT", "LEARNING", "STUDENT-1", "RABBIT"));
 
@@ -37,47 +54,459 @@ class TrainingJobUseCaseTest {
         Assertions.assertEquals("SUPPORT|FAQ|SUPPORT_DEFAULT|LEARNING|STUDENT-1", queuePort.enqueued.get(0));
     }
 
-    private static class NoopTrainingQueuePort implements TrainingQueuePort {
-        @Override
-        public List<TrainingQueueItem> fetchPendingTrainingItems(int batchSize) {
-            return List.of();
+    @Test
+    void shouldEnqueueMessagesInSingleBatch() {
+        TrainingJobUseCase useCase = new TrainingJobUseCase();
+        CapturingTrainingQueuePort queuePort = new CapturingTrainingQueuePort();
+        useCase.trainingQueuePort = queuePort;
+        useCase.trainingKnowledgeUseCase = new TrainingKnowledgeUseCase();
+        useCase.meterRegistry = new SimpleMeterRegistry();
+
+        useCase.enqueueAll(List.of(
+                new TrainingMessage("SUPPORT", "FAQ", "conteudo 1", null, "LEARNING", null, "RABBIT"),
+                new TrainingMessage("SUPPORT", "FAQ", "conteudo 2", null, "LEARNING", "STUDENT-1", "RABBIT")
+        ));
+
+        Assertions.assertEquals(1, queuePort.enqueueBatches);
+        Assertions.assertEquals(2, queuePort.enqueued.size());
+    }
+
+    @Test
+    void shouldSkipResentContentBeforeReachingQueue() {
+        TrainingJobUseCase useCase = new TrainingJobUseCase();
+        CapturingTrainingQueuePort queuePort = new CapturingTrainingQueuePort();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        useCase.trainingQueuePort = queuePort;
+        useCase.trainingKnowledgeUseCase = new TrainingKnowledgeUseCase();
+        useCase.meterRegistry = registry;
+
+        int first = useCase.enqueueAll(List.of(
+                new TrainingMessage("SUPPORT", "FAQ", "Reset de senha  pelo portal", null, "LEARNING", null, "RABBIT"),
+                new TrainingMessage("SUPPORT", "FAQ", "reset de senha pelo\nportal ", null, "LEARNING", null, "API"),
+                new TrainingMessage("SUPPORT", "FAQ", "reset de senha pelo portal", null, "TEACHING", null, "RABBIT")
+        ));
+        int resent = useCase.enqueueAll(List.of(
+                new TrainingMessage("SUPPORT", "FAQ", "RESET DE SENHA PELO PORTAL", null, "LEARNING", null, "RABBIT")
+        ));
+
+        Assertions.assertEquals(2, first);
+        Assertions.assertEquals(0, resent);
+        Assertions.assertEquals(2, queuePort.enqueued.size());
+        Assertions.assertEquals(2.0, registry.counter("connector.training.dedup", "stage", "enqueue").count());
+    }
+
+    @Test
+    void shouldDispatchEnqueuedItemsWithoutWaitingForScheduler() throws InterruptedException {
+        TrainingJobUseCase useCase = new TrainingJobUseCase();
+        DispatchingTrainingQueuePort queuePort = new DispatchingTrainingQueuePort();
+        useCase.trainingQueuePort = queuePort;
+        useCase.trainingKnowledgeUseCase = new ConcurrencyTrackingKnowledgeUseCase();
+        useCase.meterRegistry = new SimpleMeterRegistry();
+        useCase.providerConcurrency = 2;
+        useCase.jobEnabled = true;
+        useCase.dispatchEnabled = true;
+        useCase.batchSize = 2;
+        useCase.dispatchErrorDelay = Duration.ofMillis(50);
+        useCase.init();
+        try {
+            useCase.enqueueAll(List.of(
+                    new TrainingMessage("SUPPORT", "FAQ", "conteudo 1", null, null, null, "RABBIT"),
+                    new TrainingMessage("SUPPORT", "FAQ", "conteudo 2", null, null, null, "RABBIT"),
+                    new TrainingMessage("SUPPORT", "FAQ", "conteudo 3", null, null, null, "RABBIT")
+            ));
+
+            Assertions.assertTrue(queuePort.allDone.await(5, TimeUnit.SECONDS));
+        } finally {
+            useCase.shutdown();
+        }
+        Assertions.assertEquals(List.of(1L, 2L, 3L), queuePort.done.stream().sorted().toList());
+    }
+
+    @Test
+    void shouldWakeDispatcherWhenScheduledRetryFallsDue() throws InterruptedException {
+        TrainingJobUseCase useCase = new TrainingJobUseCase();
+        DispatchingTrainingQueuePort queuePort = new DispatchingTrainingQueuePort();
+        FlakyKnowledgeUseCase inference = new FlakyKnowledgeUseCase(1);
+        useCase.trainingQueuePort = queuePort;
+        useCase.trainingKnowledgeUseCase = inference;
+        useCase.meterRegistry = new SimpleMeterRegistry();
+        useCase.providerConcurrency = 2;
+        useCase.jobEnabled = true;
+        useCase.dispatchEnabled = true;
+        useCase.batchSize = 2;
+        useCase.dispatchErrorDelay = Duration.ofMillis(50);
+        useCase.retryMaxAttempts = 3;
+        useCase.retryBaseDelay = Duration.ofMillis(100);
+        useCase.retryMaxDelay = Duration.ofSeconds(1);
+        useCase.init();
+        try {
+            useCase.enqueueAll(List.of(new TrainingMessage("SUPPORT", "FAQ", "conteudo 1", null, null, null, "RABBIT")));
+
+            Assertions.assertTrue(queuePort.completed.await(5, TimeUnit.SECONDS));
+        } finally {
+            useCase.shutdown();
         }
+        Assertions.assertEquals(2, inference.calls.get());
+        Assertions.assertEquals(List.of(1L), queuePort.done);
+    }
+
+    @Test
+    void shouldSweepUntilPartialBatchWithoutDispatcher() {
+        TrainingJobUseCase useCase = new TrainingJobUseCase();
+        DispatchingTrainingQueuePort queuePort = new DispatchingTrainingQueuePort();
+        for (long id = 1; id <= 5; id++) {
+            queuePort.pending.add(new TrainingQueueItem(id, "SUPPORT", "FAQ", "conteudo " + id, null, null, null, "JOB"));
+        }
+        useCase.trainingQueuePort = queuePort;
+        useCase.trainingKnowledgeUseCase = new ConcurrencyTrackingKnowledgeUseCase();
+        useCase.meterRegistry = new SimpleMeterRegistry();
+        useCase.providerConcurrency = 2;
+        useCase.batchSize = 2;
+        useCase.init();
+
+        useCase.sweep();
+
+        Assertions.assertEquals(3, queuePort.claims.get());
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 5L), queuePort.done.stream().sorted().toList());
+    }
+
+    @Test
+    void shouldRunBatchInParallelWithinProviderLimits() {
+        TrainingJobUseCase useCase = new TrainingJobUseCase();
+        List<TrainingQueueItem> items = new ArrayList<>();
+        for (long id = 1; id <= 8; id++) {
+            String dataType = id <= 6 ? "SUPPORT" : "FINANCE";
+            items.add(new TrainingQueueItem(id, dataType, id == 3 ? "BROKEN" : "FAQ", "conteudo", null, null, null, "JOB"));
+        }
+        RecordingTrainingQueuePort queuePort = new RecordingTrainingQueuePort(items);
+        useCase.trainingQueuePort = queuePort;
+        useCase.providerConcurrency = 2;
+        useCase.providerLimitOverrides = Optional.of(List.of("ANTHROPIC=1"));
+        ConcurrencyTrackingKnowledgeUseCase inference = new ConcurrencyTrackingKnowledgeUseCase();
+        useCase.trainingKnowledgeUseCase = inference;
+
+        useCase.runBatch(8);
+
+        Assertions.assertEquals(1, queuePort.outcomeBatches.get());
+        Assertions.assertEquals(List.of(3L), queuePort.failed);
+        Assertions.assertEquals(7, queuePort.done.size());
+        Assertions.assertEquals(2, inference.maxActive.get("OPENAI/gpt-5").get());
+        Assertions.assertEquals(1, inference.maxActive.get("ANTHROPIC/claude").get());
+    }
+
+    @Test
+    void shouldGroupItemsSharingScopeIntoSingleProviderCall() {
+        TrainingJobUseCase useCase = new TrainingJobUseCase();
+        List<TrainingQueueItem> items = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            items.add(new TrainingQueueItem(id, "SUPPORT", "FAQ", "trecho " + id, null, "LEARNING", null, "JOB"));
+        }
+        items.add(new TrainingQueueItem(7L, "SUPPORT", "FAQ", "trecho 7", null, "TEACHING", null, "JOB"));
+        RecordingTrainingQueuePort queuePort = new RecordingTrainingQueuePort(items);
+        GroupingKnowledgeUseCase inference = new GroupingKnowledgeUseCase();
+        useCase.trainingQueuePort = queuePort;
+        useCase.trainingKnowledgeUseCase = inference;
+        useCase.meterRegistry = new SimpleMeterRegistry();
+        useCase.providerConcurrency = 2;
+        useCase.groupingEnabled = true;
+        useCase.groupMaxItems = 4;
+        useCase.groupMaxInputTokens = 1000;
+        useCase.init();
+
+        useCase.runBatch(7);
+
+        Assertions.assertEquals(List.of(List.of("trecho 1", "trecho 2", "trecho 3", "trecho 4"), List.of("trecho 5", "trecho 6")),
+                inference.groups.stream().sorted((a, b) -> b.size() - a.size()).toList());
+        Assertions.assertEquals(List.of("trecho 4", "trecho 6", "trecho 7"), inference.singles.stream().sorted().toList());
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), queuePort.done.stream().sorted().toList());
+    }
+
+    @Test
+    void shouldRenewLeaseOnlyAfterItemAcquiresProviderPermit() {
+        TrainingJobUseCase useCase = new TrainingJobUseCase();
+        RecordingTrainingQueuePort queuePort = new RecordingTrainingQueuePort(List.of(
+                new TrainingQueueItem(1L, "SUPPORT", "FAQ", "1", null, null, null, "JOB"),
+                new TrainingQueueItem(2L, "SUPPORT", "FAQ", "2", null, null, null, "JOB")
+        ));
+        useCase.trainingQueuePort = queuePort;
+        useCase.trainingKnowledgeUseCase = new TrainingKnowledgeUseCase() {
+            @Override
+            public String providerModelKey(String dataType, String characteristic) {
+                return "OPENAI/gpt-5";
+            }
+
+            @Override
+            public void processTrainingItem(
+                    String dataType,
+                    String characteristic,
+                    String moduleKey,
+                    String profileId,
+                    String content,
+                    String sourceType
+            ) {
+                queuePort.events.add("process-" + content);
+            }
+        };
+        useCase.providerConcurrency = 1;
+
+        useCase.runBatch(2);
+
+        Assertions.assertEquals(4, queuePort.events.size());
+        for (int i = 0; i < 4; i += 2) {
+            String renewed = queuePort.events.get(i);
+            Assertions.assertTrue(renewed.startsWith("renew-"), queuePort.events.toString());
+            Assertions.assertEquals("process-" + renewed.substring("renew-".length()), queuePort.events.get(i + 1));
+        }
+        Assertions.assertEquals(List.of(1L, 2L), queuePort.done.stream().sorted().toList());
+    }
+
+    private static class GroupingKnowledgeUseCase extends TrainingKnowledgeUseCase {
+        final List<List<String>> groups = new CopyOnWriteArrayList<>();
+        final List<String> singles = new CopyOnWriteArrayList<>();
 
         @Override
-        public void markTrainingDone(long id) {
+        public String providerModelKey(String dataType, String characteristic) {
+            return "OPENAI/gpt-5";
         }
 
         @Override
-        public void markTrainingFailed(long id, String reason) {
+        public Set<Integer> processTrainingGroup(
+                String dataType,
+                String characteristic,
+                String moduleKey,
+                String profileId,
+                List<String> contents,
+                String sourceType
+        ) {
+            groups.add(contents);
+            Set<Integer> attributed = new HashSet<>();
+            for (int i = 0; i < contents.size() - 1; i++) {
+                attributed.add(i);
+            }
+            return attributed;
         }
 
         @Override
-        public void enqueueTrainingItem(
+        public void processTrainingItem(
                 String dataType,
-                String dataCharacteristic,
-                String content,
-                String routeKey,
+                String characteristic,
                 String moduleKey,
                 String profileId,
+                String content,
                 String sourceType
         ) {
+            singles.add(content);
         }
     }
 
-    private static class CapturingTrainingQueuePort extends NoopTrainingQueuePort {
-        final List<String> enqueued = new ArrayList<>();
+    private static class FlakyKnowledgeUseCase extends TrainingKnowledgeUseCase {
+        final AtomicInteger calls = new AtomicInteger();
+        private final int failures;
+
+        FlakyKnowledgeUseCase(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public String providerModelKey(String dataType, String characteristic) {
+            return "OPENAI/gpt-5";
+        }
 
         @Override
-        public void enqueueTrainingItem(
+        public void processTrainingItem(
                 String dataType,
-                String dataCharacteristic,
+                String characteristic,
+                String moduleKey,
+                String profileId,
                 String content,
-                String routeKey,
+                String sourceType
+        ) {
+            if (calls.incrementAndGet() <= failures) {
+                throw new ProviderHttpException("OpenAI", 503, "indisponivel");
+            }
+        }
+    }
+
+    private static class ConcurrencyTrackingKnowledgeUseCase extends TrainingKnowledgeUseCase {
+        final ConcurrentHashMap<String, AtomicInteger> active = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, AtomicInteger> maxActive = new ConcurrentHashMap<>();
+
+        @Override
+        public String providerModelKey(String dataType, String characteristic) {
+            return "SUPPORT".equals(dataType) ? "OPENAI/gpt-5" : "ANTHROPIC/claude";
+        }
+
+        @Override
+        public void processTrainingItem(
+                String dataType,
+                String characteristic,
                 String moduleKey,
                 String profileId,
+                String content,
                 String sourceType
         ) {
-            enqueued.add(dataType + "|" + dataCharacteristic + "|" + routeKey + "|" + moduleKey + "|" + profileId);
+            String key = providerModelKey(dataType, characteristic);
+            int current = active.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            maxActive.computeIfAbsent(key, k -> new AtomicInteger()).accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.get(key).decrementAndGet();
+            }
+            if ("BROKEN".equals(characteristic)) {
+                throw new IllegalArgumentException("falha simulada");
+            }
+        }
+    }
+
+    private static class RecordingTrainingQueuePort extends NoopTrainingQueuePort {
+        final List<TrainingQueueItem> items;
+        final List<Long> done = new CopyOnWriteArrayList<>();
+        final List<Long> failed = new CopyOnWriteArrayList<>();
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final AtomicInteger outcomeBatches = new AtomicInteger();
+
+        RecordingTrainingQueuePort(List<TrainingQueueItem> items) {
+            this.items = items;
+        }
+
+        @Override
+        public List<TrainingQueueItem> claimPendingTrainingItems(int batchSize) {
+            return items;
+        }
+
+        @Override
+        public void renewTrainingLeases(List<Long> ids) {
+            ids.forEach(id -> events.add("renew-" + id));
+        }
+
+        @Override
+        public void recordTrainingOutcomes(List<TrainingOutcome> outcomes) {
+            outcomeBatches.incrementAndGet();
+            for (TrainingOutcome outcome : outcomes) {
+                if ("DONE".equals(outcome.status())) {
+                    done.add(outcome.id());
+                } else if ("FAILED".equals(outcome.status())) {
+                    failed.add(outcome.id());
+                }
+            }
+        }
+    }
+
+    private static class DispatchingTrainingQueuePort extends NoopTrainingQueuePort {
+        final ConcurrentLinkedQueue<TrainingQueueItem> pending = new ConcurrentLinkedQueue<>();
+        final ConcurrentHashMap<Long, TrainingQueueItem> inFlight = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, Instant> notBefore = new ConcurrentHashMap<>();
+        final AtomicLong ids = new AtomicLong();
+        final AtomicInteger claims = new AtomicInteger();
+        final List<Long> done = new CopyOnWriteArrayList<>();
+        final CountDownLatch allDone = new CountDownLatch(3);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public int enqueueTrainingItems(Map<String, TrainingMessage> messagesByContentHash) {
+            for (TrainingMessage m : messagesByContentHash.values()) {
+                pending.add(new TrainingQueueItem(ids.incrementAndGet(), m.dataType(), m.dataCharacteristic(), m.content(),
+                        m.routeKey(), m.moduleKey(), m.profileId(), m.sourceType()));
+            }
+            return messagesByContentHash.size();
+        }
+
+        @Override
+        public List<TrainingQueueItem> claimPendingTrainingItems(int batchSize) {
+            claims.incrementAndGet();
+            List<TrainingQueueItem> claimed = new ArrayList<>();
+            Instant now = Instant.now();
+            for (TrainingQueueItem item : pending) {
+                if (claimed.size() >= batchSize) {
+                    break;
+                }
+                Instant due = notBefore.get(item.id());
+                if ((due == null || !due.isAfter(now)) && pending.remove(item)) {
+                    inFlight.put(item.id(), item);
+                    claimed.add(item);
+                }
+            }
+            return claimed;
+        }
+
+        @Override
+        public void recordTrainingOutcomes(List<TrainingOutcome> outcomes) {
+            for (TrainingOutcome outcome : outcomes) {
+                TrainingQueueItem item = inFlight.remove(outcome.id());
+                if (outcome.nextRunAt() != null) {
+                    notBefore.put(outcome.id(), outcome.nextRunAt());
+                    pending.add(new TrainingQueueItem(item.id(), item.dataType(), item.dataCharacteristic(), item.content(),
+                            item.routeKey(), item.moduleKey(), item.profileId(), item.sourceType(), item.attempt() + 1));
+                    continue;
+                }
+                done.add(outcome.id());
+                allDone.countDown();
+                completed.countDown();
+            }
+        }
+    }
+
+    private static class NoopTrainingQueuePort implements TrainingQueuePort {
+        @Override
+        public List<TrainingQueueItem> claimPendingTrainingItems(int batchSize) {
+            return List.of();
+        }
+
+        @Override
+        public void renewTrainingLeases(List<Long> ids) {
+        }
+
+        @Override
+        public int releaseExpiredTrainingLeases() {
+            return 0;
+        }
+
+        @Override
+        public void markTrainingDone(long id) {
+        }
+
+        @Override
+        public void markTrainingFailed(long id, String reason) {
+        }
+
+        @Override
+        public void scheduleTrainingRetry(long id, String reason, Instant nextRunAt) {
+        }
+
+        @Override
+        public void markTrainingDead(long id, String reason) {
+        }
+
+        @Override
+        public void recordTrainingOutcomes(List<TrainingOutcome> outcomes) {
+        }
+
+        @Override
+        public int enqueueTrainingItems(Map<String, TrainingMessage> messagesByContentHash) {
+            return messagesByContentHash.size();
+        }
+    }
+
+    private static class CapturingTrainingQueuePort extends NoopTrainingQueuePort {
+        final List<String> enqueued = new ArrayList<>();
+        final Set<String> storedHashes = new HashSet<>();
+        int enqueueBatches;
+
+        @Override
+        public int enqueueTrainingItems(Map<String, TrainingMessage> messagesByContentHash) {
+            enqueueBatches++;
+            int inserted = 0;
+            for (Map.Entry<String, TrainingMessage> entry : messagesByContentHash.entrySet()) {
+                if (storedHashes.add(entry.getKey())) {
+                    TrainingMessage m = entry.getValue();
+                    enqueued.add(m.dataType() + "|" + m.dataCharacteristic() + "|" + m.routeKey() + "|" + m.moduleKey() + "|" + m.profileId());
+                    inserted++;
+                }
+            }
+            return inserted;
         }
     }
 }
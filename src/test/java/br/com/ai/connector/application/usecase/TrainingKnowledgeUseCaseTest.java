@@ -0,0 +1,25 @@
+package br.com.ai.connector.application.usecase;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+class TrainingKnowledgeUseCaseTest {
+
+    @Test
+    void shouldSplitGroupedTrainingOutputByItemHeader() {
+        String output = """
+                [ITEM 1]
+                Regra de reembolso em 7 dias.
+                **[ITEM 3]**
+                Limite de 3 tentativas de login.
+                [ITEM 9]
+                secao fora do grupo
+                """;
+
+        Map<Integer, String> sections = TrainingKnowledgeUseCase.splitItemSections(output, 3);
+
+        Assertions.assertEquals(Map.of(0, "Regra de reembolso em 7 dias.", 2, "Limite de 3 tentativas de login."), sections);
+    }
+}
@@ -0,0 +1,53 @@
+package br.com.ai.connector.application.usecase;
+
+import br.com.ai.connector.provider.ProviderHttpException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.SQLRecoverableException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+
+class TrainingRetryPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Test
+    void shouldClassifyRetryableAndPoisonErrors() {
+        TrainingRetryPolicy policy = new TrainingRetryPolicy(5, Duration.ofSeconds(30), Duration.ofMinutes(30), new Random(7));
+
+        Assertions.assertEquals(TrainingRetryPolicy.Action.RETRY,
+                policy.decide(1, new ProviderHttpException("OpenAI", 429, "rate limit"), NOW).action());
+        Assertions.assertEquals(TrainingRetryPolicy.Action.RETRY,
+                policy.decide(1, new IllegalStateException("Erro ao chamar OpenAI", new IOException("reset")), NOW).action());
+        Assertions.assertEquals(TrainingRetryPolicy.Action.FAIL,
+                policy.decide(1, new ProviderHttpException("OpenAI", 400, "bad request"), NOW).action());
+        Assertions.assertEquals(TrainingRetryPolicy.Action.FAIL,
+                policy.decide(1, new IllegalArgumentException("Nenhuma rota ativa"), NOW).action());
+        Assertions.assertEquals(TrainingRetryPolicy.Action.FAIL,
+                policy.decide(1, new NullPointerException("bug"), NOW).action());
+        Assertions.assertEquals(TrainingRetryPolicy.Action.FAIL,
+                policy.decide(1, new IllegalStateException("Falha ao interpretar resposta"), NOW).action());
+        Assertions.assertEquals(TrainingRetryPolicy.Action.RETRY,
+                policy.decide(1, new IllegalStateException("Erro no Oracle", new SQLRecoverableException("conexao perdida")), NOW).action());
+        Assertions.assertEquals(TrainingRetryPolicy.Action.DEAD,
+                policy.decide(5, new ProviderHttpException("OpenAI", 503, "unavailable"), NOW).action());
+    }
+
+    @Test
+    void shouldGrowBackoffExponentiallyWithJitterUpToMaxDelay() {
+        TrainingRetryPolicy policy = new TrainingRetryPolicy(20, Duration.ofSeconds(30), Duration.ofMinutes(30), new Random(7));
+
+        for (int attempt = 1; attempt <= 12; attempt++) {
+            long ceiling = Math.min(Duration.ofMinutes(30).toMillis(), Duration.ofSeconds(30).toMillis() << (attempt - 1));
+            for (int sample = 0; sample < 50; sample++) {
+                long delay = policy.backoff(attempt).toMillis();
+                Assertions.assertTrue(delay >= ceiling / 2 && delay <= ceiling, "tentativa " + attempt + ": " + delay);
+            }
+        }
+        Instant next = policy.decide(3, new ProviderHttpException("Anthropic", 529, "overloaded"), NOW).nextRunAt();
+        Assertions.assertTrue(next.isAfter(NOW.plusSeconds(59)) && !next.isAfter(NOW.plusSeconds(120)));
+    }
+}
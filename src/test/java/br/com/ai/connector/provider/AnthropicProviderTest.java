@@ -0,0 +1,91 @@
+package br.com.ai.connector.provider;
+
+import br.com.ai.connector.dto.ProviderPayload;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AnthropicProviderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldMarkSystemAndStableContextAsCacheBreakpoints() throws Exception {
+        AnthropicProvider provider = newProvider(true);
+
+        JsonNode body = serialize(provider, payload("pergunta 1"));
+
+        JsonNode system = body.path("system");
+        Assertions.assertEquals(1, system.size());
+        Assertions.assertEquals("voce e um assistente", system.get(0).path("text").asText());
+        Assertions.assertEquals("ephemeral", system.get(0).path("cache_control").path("type").asText());
+        JsonNode content = body.path("messages").get(0).path("content");
+        Assertions.assertEquals(2, content.size());
+        Assertions.assertEquals("contexto da rota\n", content.get(0).path("text").asText());
+        Assertions.assertEquals("ephemeral", content.get(0).path("cache_control").path("type").asText());
+        Assertions.assertEquals("pergunta 1", content.get(1).path("text").asText());
+        Assertions.assertTrue(content.get(1).path("cache_control").isMissingNode());
+    }
+
+    @Test
+    void shouldKeepCachedPrefixByteStableAcrossQuestions() throws Exception {
+        AnthropicProvider provider = newProvider(true);
+
+        String first = objectMapper.writeValueAsString(provider.buildBody(payload("pergunta 1"), null));
+        String second = objectMapper.writeValueAsString(provider.buildBody(payload("outra pergunta"), null));
+
+        String prefix = first.substring(0, first.indexOf("pergunta 1"));
+        Assertions.assertTrue(prefix.contains("contexto da rota"));
+        Assertions.assertTrue(second.startsWith(prefix));
+    }
+
+    @Test
+    void shouldSendPlainStringsWhenPromptCacheIsDisabled() throws Exception {
+        AnthropicProvider provider = newProvider(false);
+
+        JsonNode body = serialize(provider, new ProviderPayload("ANTHROPIC", "claude", "voce e um assistente", "pergunta", null, null));
+
+        Assertions.assertEquals("voce e um assistente", body.path("system").asText());
+        Assertions.assertEquals("pergunta", body.path("messages").get(0).path("content").asText());
+    }
+
+    @Test
+    void shouldRecordCacheReadAndWriteTokensPerRoute() {
+        AnthropicProvider provider = newProvider(true);
+
+        String text = provider.parseAnthropicText("""
+                {"content":[{"type":"text","text":"resposta"}],
+                 "usage":{"input_tokens":40,"cache_read_input_tokens":900,"cache_creation_input_tokens":60}}
+                """, payload("pergunta 1"));
+
+        Assertions.assertEquals("resposta", text);
+        Assertions.assertEquals(1000.0, tokens("total"));
+        Assertions.assertEquals(900.0, tokens("cached"));
+        Assertions.assertEquals(60.0, tokens("cache_write"));
+    }
+
+    private AnthropicProvider newProvider(boolean promptCacheEnabled) {
+        PromptCacheMetrics metrics = new PromptCacheMetrics();
+        metrics.meterRegistry = meterRegistry;
+        AnthropicProvider provider = new AnthropicProvider(objectMapper, null, null, metrics);
+        provider.promptCacheEnabled = promptCacheEnabled;
+        return provider;
+    }
+
+    private JsonNode serialize(AnthropicProvider provider, ProviderPayload payload) throws Exception {
+        return objectMapper.readTree(objectMapper.writeValueAsString(provider.buildBody(payload, null)));
+    }
+
+    private double tokens(String type) {
+        return meterRegistry.counter("connector.provider.input.tokens",
+                "provider", "ANTHROPIC", "route", "SUPPORT_DEFAULT", "type", type).count();
+    }
+
+    private static ProviderPayload payload(String question) {
+        return new ProviderPayload("ANTHROPIC", "claude", "voce e um assistente", question, null, null, null,
+                "contexto da rota\n", "SUPPORT_DEFAULT");
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.ai.connector.provider;
+
+import br.com.ai.connector.dto.FileAttachment;
+import br.com.ai.connector.dto.ProviderPayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+class AttachmentBodyPublisherTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldSpliceFileAtPerRequestMarkerEvenWhenPromptLooksLikeOne() throws Exception {
+        byte[] content = "conteudo do arquivo".getBytes(StandardCharsets.UTF_8);
+        FileAttachment attachment = new FileAttachment(Files.write(tempDir.resolve("file.txt"), content), content.length);
+        ProviderPayload payload = new ProviderPayload("OPENAI", "gpt-5", "system",
+                "resuma __connector_attachment_base64__ e __connector_attachment_x__", 0.2, 100, attachment);
+        String marker = AttachmentBodyPublisher.markerFor(payload);
+        String json = "{\"input\":\"" + AttachmentBodyPublisher.userContent(payload, marker) + "\"}";
+
+        HttpRequest.BodyPublisher publisher = newPublisher().publisher(json, attachment, marker);
+
+        String expected = json.replace(marker, Base64.getEncoder().encodeToString(content));
+        Assertions.assertNotEquals(marker, AttachmentBodyPublisher.markerFor(payload));
+        Assertions.assertEquals(expected.length(), publisher.contentLength());
+        Assertions.assertEquals(expected, read(publisher));
+    }
+
+    @Test
+    void shouldRejectBodyWithoutMarkerOrWithDuplicatedMarker() {
+        FileAttachment attachment = new FileAttachment(tempDir.resolve("file.txt"), 3);
+        ProviderPayload payload = new ProviderPayload("OPENAI", "gpt-5", "system", "pergunta", 0.2, 100, attachment);
+        String marker = AttachmentBodyPublisher.markerFor(payload);
+        AttachmentBodyPublisher bodyPublisher = newPublisher();
+
+        Assertions.assertNull(AttachmentBodyPublisher.markerFor(new ProviderPayload("OPENAI", "gpt-5", "system", "pergunta", 0.2, 100)));
+        Assertions.assertThrows(IllegalStateException.class, () -> bodyPublisher.publisher("{}", attachment, marker));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> bodyPublisher.publisher("[\"" + marker + "\",\"" + marker + "\"]", attachment, marker));
+    }
+
+    private static AttachmentBodyPublisher newPublisher() {
+        AttachmentBodyPublisher publisher = new AttachmentBodyPublisher();
+        publisher.meterRegistry = new SimpleMeterRegistry();
+        publisher.chunkSize = new MemorySize(BigInteger.valueOf(16));
+        publisher.init();
+        return publisher;
+    }
+
+    private static String read(HttpRequest.BodyPublisher publisher) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                out.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.get(5, TimeUnit.SECONDS);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.ai.connector.provider;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class Base64FileInputStreamTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldEncodeFileAcrossChunkBoundaries() throws IOException {
+        Random random = new Random(42);
+        for (int size : new int[]{0, 1, 2, 3, 47, 48, 49, 1000}) {
+            byte[] content = new byte[size];
+            random.nextBytes(content);
+            Path file = Files.write(tempDir.resolve("file-" + size + ".bin"), content);
+
+            byte[] encoded;
+            try (InputStream in = new Base64FileInputStream(file, 16, () -> { })) {
+                encoded = in.readAllBytes();
+            }
+
+            Assertions.assertArrayEquals(Base64.getEncoder().encode(content), encoded, "size=" + size);
+            Assertions.assertEquals(Base64FileInputStream.encodedLength((long) size), encoded.length);
+        }
+    }
+
+    @Test
+    void shouldRunCloseCallbackOnce() throws IOException {
+        Path file = Files.write(tempDir.resolve("file.bin"), new byte[]{1, 2, 3});
+        AtomicInteger closes = new AtomicInteger();
+
+        InputStream in = new Base64FileInputStream(file, 16, closes::incrementAndGet);
+        in.readAllBytes();
+        in.close();
+        in.close();
+
+        Assertions.assertEquals(1, closes.get());
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.ai.connector.provider;
+
+import br.com.ai.connector.dto.ProviderPayload;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class OpenAiProviderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldOrderInputAsSystemStableContextThenQuestion() throws Exception {
+        OpenAiProvider provider = newProvider(true);
+
+        JsonNode body = serialize(provider, payload("pergunta 1"));
+
+        JsonNode input = body.path("input");
+        Assertions.assertEquals(3, input.size());
+        Assertions.assertEquals("system", input.get(0).path("role").asText());
+        Assertions.assertEquals("voce e um assistente", input.get(0).path("content").asText());
+        Assertions.assertEquals("user", input.get(1).path("role").asText());
+        Assertions.assertEquals("contexto da rota\n", input.get(1).path("content").asText());
+        Assertions.assertEquals("user", input.get(2).path("role").asText());
+        Assertions.assertEquals("pergunta 1", input.get(2).path("content").asText());
+        Assertions.assertEquals("SUPPORT_DEFAULT", body.path("prompt_cache_key").asText());
+    }
+
+    @Test
+    void shouldKeepCachedPrefixByteStableAcrossQuestions() throws Exception {
+        OpenAiProvider provider = newProvider(true);
+
+        String first = objectMapper.writeValueAsString(provider.buildBody(payload("pergunta 1"), null));
+        String second = objectMapper.writeValueAsString(provider.buildBody(payload("outra pergunta"), null));
+
+        String prefix = first.substring(0, first.indexOf("pergunta 1"));
+        Assertions.assertTrue(prefix.contains("contexto da rota"));
+        Assertions.assertTrue(second.startsWith(prefix));
+    }
+
+    @Test
+    void shouldOmitPromptCacheKeyWhenDisabledOrWithoutRoute() throws Exception {
+        OpenAiProvider disabled = newProvider(false);
+        OpenAiProvider enabled = newProvider(true);
+
+        JsonNode withoutKey = serialize(disabled, payload("pergunta"));
+        JsonNode withoutRoute = serialize(enabled, new ProviderPayload("OPENAI", "gpt-5", "voce e um assistente", "pergunta", null, null));
+
+        Assertions.assertTrue(withoutKey.path("prompt_cache_key").isMissingNode());
+        Assertions.assertTrue(withoutRoute.path("prompt_cache_key").isMissingNode());
+        Assertions.assertEquals(2, withoutRoute.path("input").size());
+    }
+
+    @Test
+    void shouldRecordCachedTokensPerRoute() {
+        OpenAiProvider provider = newProvider(true);
+
+        String text = provider.parseOpenAiText("""
+                {"output_text":"resposta",
+                 "usage":{"input_tokens":1200,"input_tokens_details":{"cached_tokens":1024}}}
+                """, payload("pergunta 1"));
+
+        Assertions.assertEquals("resposta", text);
+        Assertions.assertEquals(1200.0, tokens("total"));
+        Assertions.assertEquals(1024.0, tokens("cached"));
+        Assertions.assertEquals(0.0, tokens("cache_write"));
+    }
+
+    private OpenAiProvider newProvider(boolean promptCacheKeyEnabled) {
+        PromptCacheMetrics metrics = new PromptCacheMetrics();
+        metrics.meterRegistry = meterRegistry;
+        OpenAiProvider provider = new OpenAiProvider(objectMapper, null, null, metrics);
+        provider.promptCacheKeyEnabled = promptCacheKeyEnabled;
+        return provider;
+    }
+
+    private JsonNode serialize(OpenAiProvider provider, ProviderPayload payload) throws Exception {
+        return objectMapper.readTree(objectMapper.writeValueAsString(provider.buildBody(payload, null)));
+    }
+
+    private double tokens(String type) {
+        return meterRegistry.counter("connector.provider.input.tokens",
+                "provider", "OPENAI", "route", "SUPPORT_DEFAULT", "type", type).count();
+    }
+
+    private static ProviderPayload payload(String question) {
+        return new ProviderPayload("OPENAI", "gpt-5", "voce e um assistente", question, null, null, null,
+                "contexto da rota\n", "SUPPORT_DEFAULT");
+    }
+}
@@ -0,0 +1,53 @@
+package br.com.ai.connector.provider;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class SseEventDecoderTest {
+
+    @Test
+    void shouldDecodeEventsSplitAcrossBuffers() {
+        SseEventDecoder decoder = new SseEventDecoder();
+        byte[] raw = ("event: content_block_delta\n"
+                + "data: {\"text\":\"educação\"}\n"
+                + "\n"
+                + ": keep-alive\n"
+                + "event: message_stop\r\n"
+                + "data: {}\r\n"
+                + "\r\n").getBytes(StandardCharsets.UTF_8);
+
+        List<SseEvent> events = new ArrayList<>();
+        for (int i = 0; i < raw.length; i++) {
+            events.addAll(decoder.decode(List.of(ByteBuffer.wrap(Arrays.copyOfRange(raw, i, i + 1)))));
+        }
+
+        Assertions.assertEquals(List.of(
+                new SseEvent("content_block_delta", "{\"text\":\"educação\"}"),
+                new SseEvent("message_stop", "{}")
+        ), events);
+    }
+
+    @Test
+    void shouldJoinMultilineDataAndWaitForBlankLine() {
+        SseEventDecoder decoder = new SseEventDecoder();
+
+        List<SseEvent> first = decoder.decode(List.of(utf8("data: linha 1\ndata: linha 2\n")));
+        List<SseEvent> second = decoder.decode(List.of(utf8("\ndata: [DONE]\n\n")));
+
+        Assertions.assertTrue(first.isEmpty());
+        Assertions.assertEquals(List.of(
+                new SseEvent(null, "linha 1\nlinha 2"),
+                new SseEvent(null, "[DONE]")
+        ), second);
+    }
+
+    private static ByteBuffer utf8(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}